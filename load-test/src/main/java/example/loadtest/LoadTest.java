@@ -0,0 +1,243 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Closed-model load generator for the example application. A fixed number of simulated users
+ * each send a mix of {@code GET /users?page=} and {@code POST /users} requests, optionally pausing
+ * between them, and the latency of every request sent after the warmup is recorded in an HDR
+ * histogram per operation. Start the application first, then run with {@code --name=value}
+ * arguments as described in {@link LoadTestOptions}.
+ * <p>
+ * A user waits for each response before sending the next request, so a stalled server also stalls
+ * the requests the user would have sent in the meantime, and they never get measured. With a think
+ * time, the latencies are corrected for that coordinated omission by recording the requests that
+ * were due every think time during a response taking longer than that, as if they had been sent.
+ * Without a think time there is no intended schedule to correct against: the figures are then
+ * response times of a saturated closed system and understate the latencies clients arriving at a
+ * fixed rate would see.
+ */
+public class LoadTest {
+	private static final int SEEDED_USERS = 41;
+	private static final String PASSWORD = "foobar";
+
+	private final LoadTestOptions options;
+	private final HttpClient client;
+	private final String runId = Long.toString(System.currentTimeMillis(), 36);
+	private final AtomicLong registrations = new AtomicLong();
+	private final AtomicReferenceArray<String> registered = new AtomicReferenceArray<>(1024);
+	private final OperationStats browse;
+	private final OperationStats register;
+	private volatile boolean measuring;
+
+	LoadTest(LoadTestOptions options) {
+		this.options = options;
+		this.browse = new OperationStats("browse", 0, options.getThinkTime());
+		this.register = new OperationStats("register", 200, options.getThinkTime());
+		this.client = HttpClient.newBuilder() //
+				.version(HttpClient.Version.HTTP_1_1) //
+				.connectTimeout(Duration.ofSeconds(5)) //
+				.followRedirects(HttpClient.Redirect.NEVER) //
+				.build();
+	}
+
+	public static void main(String... args) throws Exception {
+		LoadTestOptions options = LoadTestOptions.parse(args);
+		System.out.println("Running load test with " + options);
+		new LoadTest(options).run(System.out);
+	}
+
+	/**
+	 * Runs the load test and prints a summary to the given {@link PrintStream}.
+	 *
+	 * @param out must not be {@literal null}.
+	 * @throws Exception
+	 */
+	void run(PrintStream out) throws Exception {
+		long warmupEnd = System.nanoTime() + options.getWarmup().toNanos();
+		long end = warmupEnd + options.getDuration().toNanos();
+
+		ExecutorService users = Executors.newFixedThreadPool(options.getConcurrency());
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < options.getConcurrency(); i++) {
+			futures.add(users.submit(() -> simulateUser(end)));
+		}
+
+		TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+		browse.reset();
+		register.reset();
+		measuring = true;
+		long start = System.nanoTime();
+
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		users.shutdown();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		out.printf("%n%-10s %10s %8s %8s %12s %9s %9s %9s %9s%n", "operation", "requests", "rejected",
+				"errors", "req/s", "p50[ms]", "p99[ms]", "p999[ms]", "max[ms]");
+		for (OperationStats stats : new OperationStats[] { browse, register }) {
+			stats.report(out, seconds, options.getOutput());
+		}
+	}
+
+	private Void simulateUser(long end) throws InterruptedException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < end) {
+			if (random.nextDouble() < options.getBrowseRatio()) {
+				browse();
+			} else {
+				register();
+			}
+			if (!options.getThinkTime().isZero()) {
+				Thread.sleep(options.getThinkTime().toMillis());
+			}
+		}
+		return null;
+	}
+
+	private void browse() throws InterruptedException {
+		int page = ThreadLocalRandom.current().nextInt(options.getPages());
+		URI uri = options.getBaseUri()
+				.resolve("/users?page=" + page + "&size=" + options.getPageSize());
+		send(browse, HttpRequest.newBuilder(uri).GET());
+	}
+
+	private void register() throws InterruptedException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String username;
+		if (random.nextDouble() < options.getCollisionRate()) {
+			username = registered.get(random.nextInt(registered.length()));
+			if (username == null) {
+				username = "user" + random.nextInt(SEEDED_USERS);
+			}
+		} else {
+			long index = registrations.incrementAndGet();
+			username = "lt-" + runId + "-" + index;
+			registered.set((int) (index % registered.length()), username);
+		}
+		String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8) + "&password="
+				+ PASSWORD + "&repeatedPassword=" + PASSWORD;
+		send(register, HttpRequest.newBuilder(options.getBaseUri().resolve("/users"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(BodyPublishers.ofString(form)));
+	}
+
+	private void send(OperationStats stats, HttpRequest.Builder request)
+			throws InterruptedException {
+		long start = System.nanoTime();
+		int status;
+		try {
+			status = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+					BodyHandlers.discarding()).statusCode();
+		} catch (IOException o_O) {
+			status = -1;
+		}
+		if (measuring) {
+			stats.record(status, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Latencies and outcomes of one kind of request. A redirect signals a successful registration,
+	 * a registration answered by re-rendering the form was rejected, e.g. for a taken username.
+	 */
+	private static class OperationStats {
+		private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+		private final String name;
+		private final int rejectedStatus;
+		private final long expectedIntervalMicros;
+		private final Recorder latencies = new Recorder(MAX_LATENCY_MICROS, 3);
+		private final LongAdder rejected = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+
+		/**
+		 * @param name the name to report the operation with.
+		 * @param rejectedStatus the HTTP status signalling a rejected request, {@literal 0} if the
+		 *        operation can't be rejected.
+		 * @param thinkTime the intended pause between the requests of a user, used to correct the
+		 *        recorded latencies for coordinated omission unless zero.
+		 */
+		OperationStats(String name, int rejectedStatus, Duration thinkTime) {
+			this.name = name;
+			this.rejectedStatus = rejectedStatus;
+			this.expectedIntervalMicros = thinkTime.toNanos() / 1000;
+		}
+
+		void record(int status, long nanos) {
+			if (status == rejectedStatus) {
+				rejected.increment();
+			} else if (status < 200 || status >= 400) {
+				errors.increment();
+			}
+			latencies.recordValueWithExpectedInterval(
+					Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_LATENCY_MICROS),
+					expectedIntervalMicros);
+		}
+
+		void reset() {
+			latencies.reset();
+			rejected.reset();
+			errors.reset();
+		}
+
+		void report(PrintStream out, double seconds, Path output) throws IOException {
+			Histogram histogram = latencies.getIntervalHistogram();
+			long count = histogram.getTotalCount();
+			out.printf("%-10s %10d %8d %8d %12.1f %9.2f %9.2f %9.2f %9.2f%n", name, count,
+					rejected.sum(), errors.sum(), count / seconds, millis(histogram, 50.0),
+					millis(histogram, 99.0), millis(histogram, 99.9),
+					histogram.getMaxValue() / 1000.0);
+
+			if (output != null) {
+				Files.createDirectories(output);
+				try (PrintStream file = new PrintStream(
+						Files.newOutputStream(output.resolve(name + ".hgrm")), true, "UTF-8")) {
+					histogram.outputPercentileDistribution(file, 1000.0);
+				}
+			}
+		}
+
+		private static double millis(Histogram histogram, double percentile) {
+			return histogram.getValueAtPercentile(percentile) / 1000.0;
+		}
+	}
+}
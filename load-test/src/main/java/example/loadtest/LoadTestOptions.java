@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of a {@link LoadTest} run, parsed from {@code --name=value} command line arguments.
+ * Durations are given in seconds, think time in milliseconds.
+ */
+class LoadTestOptions {
+	private final URI baseUri;
+	private final int concurrency;
+	private final Duration warmup;
+	private final Duration duration;
+	private final Duration thinkTime;
+	private final double browseRatio;
+	private final int pages;
+	private final int pageSize;
+	private final double collisionRate;
+	private final Path output;
+
+	private LoadTestOptions(Map<String, String> values) {
+		this.baseUri = URI.create(values.getOrDefault("base-url", "http://localhost:8080"));
+		this.concurrency = Integer.parseInt(values.getOrDefault("concurrency", "16"));
+		this.warmup = Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10")));
+		this.duration = Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60")));
+		this.thinkTime = Duration.ofMillis(Long.parseLong(values.getOrDefault("think-time", "0")));
+		this.browseRatio = Double.parseDouble(values.getOrDefault("browse-ratio", "0.8"));
+		this.pages = Integer.parseInt(values.getOrDefault("pages", "9"));
+		this.pageSize = Integer.parseInt(values.getOrDefault("page-size", "5"));
+		this.collisionRate = Double.parseDouble(values.getOrDefault("collision-rate", "0.05"));
+		this.output = values.containsKey("output") ? Paths.get(values.get("output")) : null;
+
+		if (concurrency <= 0 || pages <= 0 || pageSize <= 0) {
+			throw new IllegalArgumentException("Concurrency, pages and page size must be positive!");
+		}
+		if (browseRatio < 0 || browseRatio > 1 || collisionRate < 0 || collisionRate > 1) {
+			throw new IllegalArgumentException("Ratios must be between 0 and 1!");
+		}
+	}
+
+	/**
+	 * Parses the given command line arguments.
+	 *
+	 * @param args must not be {@literal null}.
+	 * @return
+	 */
+	static LoadTestOptions parse(String... args) {
+		Map<String, String> values = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Invalid argument " + arg + ", expected --name=value!");
+			}
+			values.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+		return new LoadTestOptions(values);
+	}
+
+	URI getBaseUri() {
+		return baseUri;
+	}
+
+	/**
+	 * Returns the number of simulated users sending requests concurrently.
+	 *
+	 * @return
+	 */
+	int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * Returns how long to send requests before recording latencies.
+	 *
+	 * @return
+	 */
+	Duration getWarmup() {
+		return warmup;
+	}
+
+	/**
+	 * Returns how long to record latencies after the warmup.
+	 *
+	 * @return
+	 */
+	Duration getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Returns how long each simulated user pauses between two requests.
+	 *
+	 * @return
+	 */
+	Duration getThinkTime() {
+		return thinkTime;
+	}
+
+	/**
+	 * Returns the share of requests browsing {@code GET /users?page=}, all others register a user.
+	 *
+	 * @return
+	 */
+	double getBrowseRatio() {
+		return browseRatio;
+	}
+
+	int getPages() {
+		return pages;
+	}
+
+	int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Returns the share of registrations using an already taken username.
+	 *
+	 * @return
+	 */
+	double getCollisionRate() {
+		return collisionRate;
+	}
+
+	/**
+	 * Returns the directory to write the latency histograms to, {@literal null} if they should only
+	 * be printed.
+	 *
+	 * @return
+	 */
+	Path getOutput() {
+		return output;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "base-url=" + baseUri + ", concurrency=" + concurrency + ", warmup=" + warmup.getSeconds()
+				+ "s, duration=" + duration.getSeconds() + "s, think-time=" + thinkTime.toMillis()
+				+ "ms, browse-ratio=" + browseRatio + ", pages=" + pages + ", page-size=" + pageSize
+				+ ", collision-rate=" + collisionRate;
+	}
+}
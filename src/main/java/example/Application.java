@@ -19,14 +19,22 @@ import example.users.Password;
 import example.users.UserManagement;
 import example.users.Username;
 
-import java.util.stream.IntStream;
+import static org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME;
 
-import javax.annotation.PostConstruct;
+import java.util.stream.IntStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -44,37 +52,76 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  * <li>The ability to use proxy-backed interfaces to bind request payloads (see
  * {@link example.users.web.UserController.UserForm})</li>
  * </ol>
+ * Startup is kept short by seeding the sample data in the background (see {@link #init()}). The {@code fast-startup}
+ * profile additionally enables lazy bean initialization and deferred JPA repository bootstrap.
  *
  * @author Oliver Gierke
  * @author Mark Paluch
  */
-@SpringBootApplication
+@SpringBootApplication(proxyBeanMethods = false)
 public class Application {
 
+	private static final Logger LOG = LoggerFactory.getLogger(Application.class);
+
 	public static void main(String... args) {
 		SpringApplication.run(Application.class, args);
 	}
 
 	@Autowired UserManagement userManagement;
+	@Autowired @Qualifier(APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor;
+	@Autowired ConfigurableApplicationContext context;
+	@Value("${startup.exit-on-ready:false}") boolean exitOnReady;
 
 	/**
-	 * Creates a few sample users.
+	 * Creates those of the sample users that don't exist yet, e.g. when running with the {@code persistent} profile after
+	 * an earlier run was stopped while creating them. Runs in the background once the application is ready so that hashing
+	 * their passwords doesn't delay accepting requests. Shuts the application down afterwards, even if creating the users
+	 * failed, if {@code startup.exit-on-ready} is set, which is used for the training run recording the class data sharing
+	 * archive in the {@code cds} Maven profile.
 	 */
-	@PostConstruct
+	@EventListener(ApplicationReadyEvent.class)
 	public void init() {
 
-		IntStream.range(0, 41).forEach(index -> {
-			userManagement.register(new Username("user" + index), Password.raw("foobar"));
+		taskExecutor.execute(() -> {
+
+			try {
+				IntStream.range(0, 41) //
+						.mapToObj(index -> new Username("user" + index)) //
+						.filter(username -> !userManagement.findByUsername(username).isPresent()) //
+						.forEach(this::registerSampleUser);
+			} catch (RuntimeException o_O) {
+				LOG.warn("Could not create sample users!", o_O);
+			} finally {
+				if (exitOnReady) {
+					System.exit(SpringApplication.exit(context));
+				}
+			}
 		});
 	}
 
+	/**
+	 * Registers the sample user with the given name unless it was registered concurrently, e.g. by another instance
+	 * sharing the {@code persistent} database, in which case the remaining sample users are still created.
+	 *
+	 * @param username
+	 */
+	private void registerSampleUser(Username username) {
+
+		try {
+			userManagement.register(username, Password.raw("foobar"));
+		} catch (IllegalArgumentException o_O) {
+			LOG.debug("Sample user {} already exists.", username);
+		}
+	}
+
 	/**
 	 * A Spring Security {@link PasswordEncoder} to encrypt passwords for newly created users, used in
-	 * {@link UserManagement}.
+	 * {@link UserManagement}. Static so that it doesn't depend on this class, which in turn depends on
+	 * {@link UserManagement}, for lazily initialized beans to be created in any order.
 	 *
 	 * @return
 	 */
-	public @Bean PasswordEncoder passwordEncoder() {
+	public static @Bean PasswordEncoder passwordEncoder() {
 		return new BCryptPasswordEncoder();
 	}
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.admin;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import example.expressions.Expressions;
+import example.profiling.EventWindows;
+import example.profiling.ProfilingStream;
+
+/**
+ * JSON endpoints exposing runtime statistics of the application.
+ */
+@RestController
+@RequestMapping("/api/admin")
+class AdminController {
+	private final Expressions expressions;
+	private final ObjectProvider<ProfilingStream> profiling;
+
+	public AdminController(final Expressions expressions,
+			final ObjectProvider<ProfilingStream> profiling) {
+		this.expressions = expressions;
+		this.profiling = profiling;
+	}
+
+	/**
+	 * Returns the cache and compiler counters of the {@link Expressions} service.
+	 *
+	 * @return
+	 */
+	@GetMapping("/expressions")
+	public Expressions.Statistics expressions() {
+		return expressions.getStatistics();
+	}
+
+	/**
+	 * Returns count, mean and maximum duration and outcomes per JFR event of the application over
+	 * the last {@code window} seconds, as recorded by the {@link ProfilingStream}.
+	 *
+	 * @param window the length of the window in seconds, capped at the retention of the
+	 *        {@link ProfilingStream}.
+	 * @return
+	 */
+	@GetMapping("/profiling")
+	public Map<String, EventWindows.Statistics> profiling(
+			@RequestParam(defaultValue = "60") long window) {
+		ProfilingStream stream = profiling.getIfAvailable();
+		if (stream == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Profiling is disabled");
+		}
+		if (window <= 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window must be positive");
+		}
+		return stream.summarize(Duration.ofSeconds(window));
+	}
+}
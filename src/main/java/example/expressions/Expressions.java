@@ -0,0 +1,263 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.expressions;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.spel.CompiledExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.standard.SpelCompiler;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+/**
+ * Single entry point to evaluate SpEL expressions in the application. Parsed expressions are cached
+ * by their expression string in a bounded map. Expressions evaluated often enough are compiled to
+ * bytecode. If a compiled evaluation fails, e.g. as the root object is of a different type than the
+ * one the expression was compiled for, the expression is interpreted again and recompiled once it
+ * reached the threshold again, like SpEL does in {@link SpelCompilerMode#MIXED}. The compilation is
+ * done here rather than by SpEL so that the counters reflect how evaluations were actually run.
+ */
+@Service
+public class Expressions {
+	private final SpelExpressionParser parser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.OFF, null));
+	private final SpelCompiler compiler = SpelCompiler.getCompiler(getClass().getClassLoader());
+	private final ConcurrentMap<String, CachedExpression> cache = new ConcurrentHashMap<>();
+	private final int cacheSize;
+	private final int compileThreshold;
+	private final LongAdder parses = new LongAdder();
+	private final LongAdder interpretedEvaluations = new LongAdder();
+	private final LongAdder compiledEvaluations = new LongAdder();
+	private final LongAdder compilations = new LongAdder();
+	private final LongAdder compilationFailures = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+
+	/**
+	 * Creates a new {@link Expressions} instance.
+	 *
+	 * @param cacheSize the maximum number of parsed expressions to keep, must be greater than zero.
+	 * @param compileThreshold the number of interpreted evaluations after which an expression is
+	 *        compiled, must be greater than zero.
+	 */
+	public Expressions(@Value("${expressions.cache-size:256}") final int cacheSize,
+			@Value("${expressions.compile-threshold:10}") final int compileThreshold) {
+		Assert.isTrue(cacheSize > 0, "Cache size must be greater than zero!");
+		Assert.isTrue(compileThreshold > 0, "Compile threshold must be greater than zero!");
+		this.cacheSize = cacheSize;
+		this.compileThreshold = compileThreshold;
+	}
+
+	/**
+	 * Evaluates the given expression against the given {@link EvaluationContext}.
+	 *
+	 * @param expression must not be {@literal null}.
+	 * @param context must not be {@literal null}.
+	 * @param type the type to convert the result to, must not be {@literal null}.
+	 * @return
+	 */
+	public <T> T evaluate(String expression, EvaluationContext context, Class<T> type) {
+		Assert.notNull(context, "EvaluationContext must not be null!");
+		return evaluate(expression, context, context.getRootObject().getValue(), type);
+	}
+
+	/**
+	 * Evaluates the given expression against the given root object instead of the one of the given
+	 * {@link EvaluationContext}. Values that vary between evaluations should be passed this way
+	 * rather than be concatenated into the expression so that a single cached expression serves
+	 * all evaluations and user data doesn't end up in the cache.
+	 *
+	 * @param expression must not be {@literal null}.
+	 * @param context must not be {@literal null}.
+	 * @param rootObject the root object to evaluate the expression against, can be {@literal null}.
+	 * @param type the type to convert the result to, must not be {@literal null}.
+	 * @return
+	 */
+	public <T> T evaluate(String expression, EvaluationContext context, Object rootObject,
+			Class<T> type) {
+		Assert.notNull(expression, "Expression must not be null!");
+		Assert.notNull(context, "EvaluationContext must not be null!");
+		CachedExpression cached = cache.get(expression);
+		if (cached == null) {
+			SpelExpression parsed = (SpelExpression) parser.parseExpression(expression);
+			cached = cache(new CachedExpression(parsed));
+		}
+		CompiledExpression compiled = cached.compiled;
+		if (compiled != null) {
+			try {
+				Object value = compiled.getValue(rootObject, context);
+				compiledEvaluations.increment();
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(value), type);
+			} catch (RuntimeException o_O) {
+				fallBack(cached, compiled);
+			}
+		}
+		T value = cached.expression.getValue(context, rootObject, type);
+		interpretedEvaluations.increment();
+		if (cached.interpretedEvaluations.incrementAndGet() == compileThreshold) {
+			compile(cached);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns a snapshot of the cache and compiler counters.
+	 *
+	 * @return
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(cache.size(), parses.sum(), interpretedEvaluations.sum(),
+				compiledEvaluations.sum(), compilations.sum(), compilationFailures.sum(),
+				fallbacks.sum());
+	}
+
+	private CachedExpression cache(CachedExpression parsed) {
+		parses.increment();
+		String expression = parsed.expression.getExpressionString();
+		CachedExpression existing = cache.putIfAbsent(expression, parsed);
+		if (existing != null) {
+			return existing;
+		}
+		Iterator<String> keys = cache.keySet().iterator();
+		while (cache.size() > cacheSize && keys.hasNext()) {
+			String key = keys.next();
+			if (!key.equals(expression)) {
+				keys.remove();
+			}
+		}
+		return parsed;
+	}
+
+	private void compile(CachedExpression cached) {
+		CompiledExpression compiled = compiler.compile((SpelNodeImpl) cached.expression.getAST());
+		if (compiled != null) {
+			cached.compiled = compiled;
+			compilations.increment();
+		} else {
+			compilationFailures.increment();
+		}
+	}
+
+	/**
+	 * Drops the given compiled form of the given expression so that it is interpreted until it
+	 * reaches the compile threshold again. Only the first of concurrent callers falling back from
+	 * the same compiled form resets the expression.
+	 */
+	private void fallBack(CachedExpression cached, CompiledExpression compiled) {
+		synchronized (cached) {
+			if (cached.compiled == compiled) {
+				cached.compiled = null;
+				cached.interpretedEvaluations.set(0);
+				fallbacks.increment();
+			}
+		}
+	}
+
+	private static final class CachedExpression {
+		private final SpelExpression expression;
+		private final AtomicInteger interpretedEvaluations = new AtomicInteger();
+		private volatile CompiledExpression compiled;
+
+		CachedExpression(SpelExpression expression) {
+			this.expression = expression;
+		}
+	}
+
+	/**
+	 * Snapshot of the counters of {@link Expressions}.
+	 */
+	public static final class Statistics {
+		private final int cachedExpressions;
+		private final long parses;
+		private final long interpretedEvaluations;
+		private final long compiledEvaluations;
+		private final long compilations;
+		private final long compilationFailures;
+		private final long fallbacks;
+
+		Statistics(int cachedExpressions, long parses, long interpretedEvaluations,
+				long compiledEvaluations, long compilations, long compilationFailures,
+				long fallbacks) {
+			this.cachedExpressions = cachedExpressions;
+			this.parses = parses;
+			this.interpretedEvaluations = interpretedEvaluations;
+			this.compiledEvaluations = compiledEvaluations;
+			this.compilations = compilations;
+			this.compilationFailures = compilationFailures;
+			this.fallbacks = fallbacks;
+		}
+
+		public int getCachedExpressions() {
+			return cachedExpressions;
+		}
+
+		/**
+		 * Returns the number of expressions parsed, i.e. cache misses.
+		 *
+		 * @return
+		 */
+		public long getParses() {
+			return parses;
+		}
+
+		public long getInterpretedEvaluations() {
+			return interpretedEvaluations;
+		}
+
+		public long getCompiledEvaluations() {
+			return compiledEvaluations;
+		}
+
+		/**
+		 * Returns the number of expressions compiled to bytecode.
+		 *
+		 * @return
+		 */
+		public long getCompilations() {
+			return compilations;
+		}
+
+		/**
+		 * Returns the number of expressions that were evaluated often enough to be compiled but
+		 * can't be, e.g. as they contain constructs not supported by the SpEL compiler. Those keep
+		 * being interpreted.
+		 *
+		 * @return
+		 */
+		public long getCompilationFailures() {
+			return compilationFailures;
+		}
+
+		/**
+		 * Returns the number of times a compiled expression failed to evaluate and was dropped to be
+		 * interpreted again.
+		 *
+		 * @return
+		 */
+		public long getFallbacks() {
+			return fallbacks;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * An {@link OutboxSink} appending {@link OutboxMessage}s to a file, one JSON document per line.
+ * Each batch is written and flushed with a single open of the file.
+ */
+public class FileOutboxSink implements OutboxSink {
+	private final Path file;
+	private final ObjectMapper mapper;
+
+	/**
+	 * Creates a new {@link FileOutboxSink} for the given file. Missing parent directories are
+	 * created on first write.
+	 *
+	 * @param file must not be {@literal null}.
+	 * @param mapper must not be {@literal null}.
+	 */
+	public FileOutboxSink(Path file, ObjectMapper mapper) {
+		this.file = file;
+		this.mapper = mapper;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see example.outbox.OutboxSink#publish(java.util.List)
+	 */
+	@Override
+	public synchronized void publish(List<OutboxMessage> messages) {
+		try {
+			Path parent = file.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+				for (OutboxMessage message : messages) {
+					ObjectNode line = mapper.createObjectNode();
+					line.put("id", message.getId());
+					line.put("type", message.getType());
+					line.put("createdAt", message.getCreatedAt().toString());
+					line.set("payload", mapper.readTree(message.getPayload()));
+					writer.write(mapper.writeValueAsString(line));
+					writer.newLine();
+				}
+			}
+		} catch (IOException o_O) {
+			throw new UncheckedIOException("Could not write outbox messages to " + file + "!", o_O);
+		}
+	}
+}
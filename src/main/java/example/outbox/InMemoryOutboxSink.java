@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * An {@link OutboxSink} keeping the most recent {@link OutboxMessage}s in memory, for local use.
+ * Consumers read them through {@code GET /api/users/events}.
+ * <p>
+ * Every message is assigned a position in the order it is published, which consumers use to track
+ * how far they have read. Message identifiers can't be used for that as they are not published in
+ * order: with sharding every shard's outbox is relayed separately, and even with a single database
+ * a message may commit, and thus be relayed, after one with a higher identifier. A batch published
+ * again after a failure gets new positions, so consumers have to deduplicate by identifier.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+	private final int capacity;
+	private final Deque<Entry> entries;
+	private long position;
+
+	/**
+	 * Creates a new {@link InMemoryOutboxSink} retaining at most the given number of messages.
+	 *
+	 * @param capacity must be greater than zero.
+	 */
+	public InMemoryOutboxSink(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than zero!");
+		}
+		this.capacity = capacity;
+		this.entries = new ArrayDeque<>(Math.min(capacity, 1024));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see example.outbox.OutboxSink#publish(java.util.List)
+	 */
+	@Override
+	public synchronized void publish(List<OutboxMessage> batch) {
+		for (OutboxMessage message : batch) {
+			if (entries.size() == capacity) {
+				entries.removeFirst();
+			}
+			entries.addLast(new Entry(++position, message));
+		}
+	}
+
+	/**
+	 * Returns the retained {@link Entry}s following the given position in the order they were
+	 * published, so that consumers can read the feed incrementally.
+	 *
+	 * @param position the position of the last entry seen, {@literal 0} to read from the start.
+	 * @param limit the maximum number of entries to return, must be greater than zero.
+	 * @return
+	 */
+	public synchronized List<Entry> getEntriesAfter(long position, int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Limit must be greater than zero!");
+		}
+		List<Entry> result = new ArrayList<>(Math.min(limit, entries.size()));
+		for (Entry entry : entries) {
+			if (result.size() == limit) {
+				break;
+			}
+			if (entry.position > position) {
+				result.add(entry);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * An {@link OutboxMessage} along with the position it was published at.
+	 */
+	public static final class Entry {
+		private final long position;
+		private final OutboxMessage message;
+
+		Entry(long position, OutboxMessage message) {
+			this.position = position;
+			this.message = message;
+		}
+
+		/**
+		 * Returns the position of the message in the feed, increasing in the order messages were
+		 * published.
+		 *
+		 * @return
+		 */
+		public long getPosition() {
+			return position;
+		}
+
+		@JsonUnwrapped
+		public OutboxMessage getMessage() {
+			return message;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import java.time.Instant;
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Transactional outbox to publish domain events. Events are stored alongside the business data in
+ * the caller's transaction and picked up by the {@link OutboxRelay} once committed, so neither
+ * lost nor published for rolled back changes.
+ */
+@Component
+public class Outbox {
+	private final OutboxMessageRepository repository;
+	private final ObjectMapper mapper;
+
+	/**
+	 * Stores the given event in the outbox. Has to be called within the transaction that produced
+	 * the event.
+	 *
+	 * @param event must not be {@literal null}.
+	 */
+	@Transactional(TxType.MANDATORY)
+	public void append(Object event) {
+		Assert.notNull(event, "Event must not be null!");
+		String payload;
+		try {
+			payload = mapper.writeValueAsString(event);
+		} catch (JsonProcessingException o_O) {
+			throw new IllegalArgumentException("Could not serialize event " + event + "!", o_O);
+		}
+		repository.save(new OutboxMessage(event.getClass().getSimpleName(), payload, Instant.now()));
+	}
+
+	public Outbox(final OutboxMessageRepository repository, final ObjectMapper mapper) {
+		this.repository = repository;
+		this.mapper = mapper;
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import java.nio.file.Paths;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Enables the {@link OutboxRelay} and registers the {@link OutboxSink} selected by the
+ * {@code outbox.sink} property: {@code memory} (the default) or {@code file}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+class OutboxConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "outbox.sink", havingValue = "memory", matchIfMissing = true)
+	InMemoryOutboxSink inMemoryOutboxSink(@Value("${outbox.memory.capacity:10000}") int capacity) {
+		return new InMemoryOutboxSink(capacity);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "outbox.sink", havingValue = "file")
+	FileOutboxSink fileOutboxSink(@Value("${outbox.file:outbox.jsonl}") String file,
+			ObjectMapper mapper) {
+		return new FileOutboxSink(Paths.get(file), mapper);
+	}
+}
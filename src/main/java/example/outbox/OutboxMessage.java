@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * A row in the transactional outbox: a serialized domain event waiting to be handed to an
+ * {@link OutboxSink} by the {@link OutboxRelay}.
+ */
+@Entity
+public class OutboxMessage {
+	@GeneratedValue
+	@Id
+	private Long id;
+	private final String type;
+	@Column(length = 4000)
+	private final String payload;
+	private final Instant createdAt;
+
+	OutboxMessage() {
+		this.type = null;
+		this.payload = null;
+		this.createdAt = null;
+	}
+
+	OutboxMessage(final String type, final String payload, final Instant createdAt) {
+		this.type = type;
+		this.payload = payload;
+		this.createdAt = createdAt;
+	}
+
+	/**
+	 * Returns the identifier of the message, assigned on insert and unique across shards. Messages
+	 * are not necessarily relayed in the order of their identifiers, see
+	 * {@link InMemoryOutboxSink} for how consumers track how far they have read.
+	 *
+	 * @return
+	 */
+	public Long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the simple class name of the event the message was created for.
+	 *
+	 * @return
+	 */
+	public String getType() {
+		return this.type;
+	}
+
+	/**
+	 * Returns the event serialized as JSON, rendered as is when the message itself is serialized.
+	 *
+	 * @return
+	 */
+	@JsonRawValue
+	public String getPayload() {
+		return this.payload;
+	}
+
+	public Instant getCreatedAt() {
+		return this.createdAt;
+	}
+}
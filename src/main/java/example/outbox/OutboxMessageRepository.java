@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example.outbox;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * A Spring Data repository to persist {@link OutboxMessage}s.
+ */
+interface OutboxMessageRepository extends CrudRepository<OutboxMessage, Long> {
+
+	/**
+	 * Returns the oldest {@link OutboxMessage}s, at most as many as the given {@link Pageable}'s
+	 * size.
+	 *
+	 * @param pageable must not be {@literal null}.
+	 * @return
+	 */
+	List<OutboxMessage> findByOrderByIdAsc(Pageable pageable);
+
+	/**
+	 * Deletes the {@link OutboxMessage}s with the given identifiers in a single statement.
+	 *
+	 * @param ids must not be {@literal null} or empty.
+	 * @return the number of deleted messages.
+	 */
+	@Modifying
+	@Query("delete from OutboxMessage m where m.id in ?1")
+	int deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import example.sharding.Shards;
+
+/**
+ * Background job draining the {@link Outbox} into the configured {@link OutboxSink}. Every batch
+ * is read, published and deleted in a transaction of its own, so a failing sink only ever causes
+ * the current batch to be retried on the next run. Never initialized lazily as its schedule would
+ * not be registered otherwise.
+ */
+@Component
+@Lazy(false)
+class OutboxRelay {
+	private final OutboxMessageRepository repository;
+	private final OutboxSink sink;
+	private final TransactionTemplate transactions;
+	private final Shards shards;
+	private final int batchSize;
+
+	/**
+	 * Relays all pending {@link OutboxMessage}s, batch by batch, until the outbox is empty. With
+	 * sharding enabled every shard has an outbox of its own, which are drained one after the other.
+	 */
+	@Scheduled(fixedDelayString = "${outbox.relay.interval:1000}")
+	public void relay() {
+		shards.onEach(() -> {
+			int relayed;
+			do {
+				relayed = relayBatch();
+			} while (relayed == batchSize);
+			return null;
+		});
+	}
+
+	/**
+	 * Relays the oldest batch of pending {@link OutboxMessage}s.
+	 *
+	 * @return the number of messages relayed.
+	 */
+	int relayBatch() {
+		Integer relayed = transactions.execute(status -> {
+			List<OutboxMessage> batch = repository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+			if (batch.isEmpty()) {
+				return 0;
+			}
+			sink.publish(batch);
+			List<Long> ids = new ArrayList<>(batch.size());
+			for (OutboxMessage message : batch) {
+				ids.add(message.getId());
+			}
+			repository.deleteByIdIn(ids);
+			return batch.size();
+		});
+		return relayed == null ? 0 : relayed;
+	}
+
+	public OutboxRelay(final OutboxMessageRepository repository, final OutboxSink sink,
+			final PlatformTransactionManager transactionManager, final Shards shards,
+			@Value("${outbox.relay.batch-size:100}") final int batchSize) {
+		this.repository = repository;
+		this.sink = sink;
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.shards = shards;
+		this.batchSize = batchSize;
+	}
+}
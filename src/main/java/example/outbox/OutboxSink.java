@@ -0,0 +1,32 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import java.util.List;
+
+/**
+ * Destination the {@link OutboxRelay} hands committed {@link OutboxMessage}s to. Delivery is
+ * at-least-once: a batch is removed from the outbox only after {@link #publish(List)} returned, so
+ * implementations have to cope with seeing a batch again after a failure.
+ */
+public interface OutboxSink {
+
+	/**
+	 * Publishes the given batch of {@link OutboxMessage}s of a single shard, ordered by their
+	 * identifier. Batches are not ordered relative to each other.
+	 *
+	 * @param messages will never be {@literal null} or empty.
+	 */
+	void publish(List<OutboxMessage> messages);
+}
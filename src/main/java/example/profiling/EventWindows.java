@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates event durations and outcomes per event name into a ring of fixed-length time slots,
+ * so that summaries for any window up to {@code slots * slotLength} can be computed.
+ */
+public class EventWindows {
+	private final long slotMillis;
+	private final Slot[] slots;
+
+	/**
+	 * @param slotLength the length of a single slot, must be at least a millisecond.
+	 * @param slots the number of slots to retain, must be greater than zero.
+	 */
+	EventWindows(Duration slotLength, int slots) {
+		if (slotLength.toMillis() <= 0 || slots <= 0) {
+			throw new IllegalArgumentException("Slot length and count must be positive!");
+		}
+		this.slotMillis = slotLength.toMillis();
+		this.slots = new Slot[slots];
+	}
+
+	/**
+	 * Records an event that ended at the given time.
+	 *
+	 * @param name the name of the event.
+	 * @param outcome the outcome of the event, may be {@literal null}.
+	 * @param duration the duration of the event.
+	 * @param end the end time of the event.
+	 */
+	synchronized void record(String name, String outcome, Duration duration, Instant end) {
+		long index = end.toEpochMilli() / slotMillis;
+		int position = (int) (index % slots.length);
+		Slot slot = slots[position];
+		if (slot == null || slot.index != index) {
+			if (slot != null && slot.index > index) {
+				return;
+			}
+			slot = new Slot(index);
+			slots[position] = slot;
+		}
+		slot.statistics.computeIfAbsent(name, key -> new Statistics()).add(outcome, duration);
+	}
+
+	/**
+	 * Returns the {@link Statistics} per event name of all events that ended within the given
+	 * window before the given time.
+	 *
+	 * @param window the length of the window, capped at the retained period.
+	 * @param now the end of the window.
+	 * @return
+	 */
+	synchronized Map<String, Statistics> summarize(Duration window, Instant now) {
+		long current = now.toEpochMilli() / slotMillis;
+		long count = Math.min(slots.length, Math.max(1, window.toMillis() / slotMillis));
+		Map<String, Statistics> result = new TreeMap<>();
+		for (Slot slot : slots) {
+			if (slot == null || slot.index > current || slot.index <= current - count) {
+				continue;
+			}
+			slot.statistics.forEach((name, statistics) -> result
+					.computeIfAbsent(name, key -> new Statistics()).merge(statistics));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the longest window that can be summarized.
+	 *
+	 * @return
+	 */
+	Duration getRetention() {
+		return Duration.ofMillis(slotMillis * slots.length);
+	}
+
+	private static final class Slot {
+		private final long index;
+		private final Map<String, Statistics> statistics = new TreeMap<>();
+
+		Slot(long index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * Count, mean and maximum duration and the number of occurrences per outcome of an event.
+	 */
+	public static final class Statistics {
+		private long count;
+		private long totalNanos;
+		private long maxNanos;
+		private final Map<String, Long> outcomes = new TreeMap<>();
+
+		void add(String outcome, Duration duration) {
+			long nanos = duration.toNanos();
+			count++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+			outcomes.merge(outcome == null ? "unknown" : outcome, 1L, Long::sum);
+		}
+
+		void merge(Statistics other) {
+			count += other.count;
+			totalNanos += other.totalNanos;
+			maxNanos = Math.max(maxNanos, other.maxNanos);
+			other.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Long::sum));
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public double getMeanMillis() {
+			return count == 0 ? 0 : totalNanos / 1e6 / count;
+		}
+
+		public double getMaxMillis() {
+			return maxNanos / 1e6;
+		}
+
+		public Map<String, Long> getOutcomes() {
+			return outcomes;
+		}
+	}
+}
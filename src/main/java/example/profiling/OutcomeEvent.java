@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class for the JFR events of the application: a timed operation with an outcome. Usage
+ * follows the JFR idiom of creating and beginning the event before the operation, setting the
+ * outcome and committing it afterwards. Committing is cheap if the event is disabled.
+ *
+ * @see ProfilingStream
+ */
+public abstract class OutcomeEvent extends Event {
+	@Label("Outcome")
+	protected String outcome = "failed";
+
+	/**
+	 * Sets the outcome of the operation, {@code failed} unless set. The field is not private as JFR
+	 * ignores private fields of superclasses.
+	 *
+	 * @param outcome
+	 */
+	public void setOutcome(String outcome) {
+		this.outcome = outcome;
+	}
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event timing the encryption of the password of a newly registered user. Its outcome is
+ * {@code hashed} or {@code failed}.
+ */
+@Name("example.PasswordHash")
+@Label("Password Hash")
+@Description("Encryption of a password for a newly registered user.")
+@Category({ "Example", "Users" })
+public class PasswordHashEvent extends OutcomeEvent {
+}
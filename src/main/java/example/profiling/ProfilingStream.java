@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import jdk.jfr.EventType;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes the application's JFR events in-process through a {@link RecordingStream} and
+ * aggregates them into {@link EventWindows}. Only the events of this application are enabled, with
+ * neither threshold nor stack traces, to keep the overhead low enough to stay on permanently.
+ * Disable with {@code profiling.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "profiling.enabled", matchIfMissing = true)
+public class ProfilingStream implements SmartLifecycle {
+	private static final Class<?>[] EVENTS = { UserRegistrationEvent.class, PasswordHashEvent.class,
+			UserLookupEvent.class };
+
+	private final EventWindows windows;
+	private RecordingStream stream;
+
+	public ProfilingStream(@Value("${profiling.slot-length:10s}") final Duration slotLength,
+			@Value("${profiling.slots:30}") final int slots) {
+		this.windows = new EventWindows(slotLength, slots);
+	}
+
+	/**
+	 * Returns statistics per event name of all events that ended within the given window.
+	 *
+	 * @param window the length of the window, capped at {@link #getRetention()}.
+	 * @return
+	 */
+	public Map<String, EventWindows.Statistics> summarize(Duration window) {
+		return windows.summarize(window, Instant.now());
+	}
+
+	/**
+	 * Returns the longest window that can be summarized.
+	 *
+	 * @return
+	 */
+	public Duration getRetention() {
+		return windows.getRetention();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.springframework.context.Lifecycle#start()
+	 */
+	@Override
+	public synchronized void start() {
+		RecordingStream stream = new RecordingStream();
+		stream.setMaxAge(Duration.ofMinutes(1));
+		for (Class<?> event : EVENTS) {
+			String name = EventType.getEventType(event.asSubclass(jdk.jfr.Event.class)).getName();
+			stream.enable(name).withoutThreshold().withoutStackTrace();
+			stream.onEvent(name, recorded -> windows.record(name, recorded.getString("outcome"),
+					recorded.getDuration(), recorded.getEndTime()));
+		}
+		stream.startAsync();
+		this.stream = stream;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.springframework.context.Lifecycle#stop()
+	 */
+	@Override
+	public synchronized void stop() {
+		if (stream != null) {
+			stream.close();
+			stream = null;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.springframework.context.Lifecycle#isRunning()
+	 */
+	@Override
+	public synchronized boolean isRunning() {
+		return stream != null;
+	}
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event timing the lookup of a user by username. Its outcome is {@code found}, {@code absent}
+ * or {@code failed}.
+ */
+@Name("example.UserLookup")
+@Label("User Lookup")
+@Description("Lookup of a user by username.")
+@Category({ "Example", "Users" })
+public class UserLookupEvent extends OutcomeEvent {
+}
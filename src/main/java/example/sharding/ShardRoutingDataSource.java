@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * A {@link javax.sql.DataSource} handing out connections of the shard selected through
+ * {@link Shards} for the current thread. Falls back to the first shard if none is selected.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+	private final List<HikariDataSource> shards;
+
+	ShardRoutingDataSource(List<HikariDataSource> shards) {
+		this.shards = shards;
+		Map<Object, Object> targets = new HashMap<>();
+		for (int shard = 0; shard < shards.size(); shard++) {
+			targets.put(shard, shards.get(shard));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(shards.get(0));
+		setLenientFallback(false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource#determineCurrentLookupKey()
+	 */
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return Shards.current();
+	}
+
+	/**
+	 * Closes the connection pools of all shards.
+	 */
+	@Override
+	public void close() {
+		for (HikariDataSource shard : shards) {
+			shard.close();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.PlatformTransactionManagerCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the single {@link DataSource} with one in-memory HSQLDB database per shard if
+ * {@code users.sharding.enabled} is set. Hibernate doesn't manage the schema in that case, it is
+ * created on every shard from {@code db/shard-schema.sql}. Each shard's id sequence starts at its
+ * index and increments by the number of shards so that ids are unique across all shards.
+ * <p>
+ * The {@link ShardRoutingDataSource} is wrapped into a {@link LazyConnectionDataSourceProxy} so
+ * that transactions only fetch a connection with their first statement, by which time the shard
+ * has been selected. Transaction synchronization is limited to actual transactions so that code
+ * running without one, e.g. to query all shards, doesn't share a single {@code EntityManager}, and
+ * thus connection, across shards.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("users.sharding.enabled")
+class ShardingConfiguration {
+
+	@Bean
+	ShardRoutingDataSource shardRoutingDataSource(Shards shards) {
+		List<HikariDataSource> dataSources = new ArrayList<>(shards.count());
+		for (int shard = 0; shard < shards.count(); shard++) {
+			HikariDataSource dataSource = DataSourceBuilder.create() //
+					.type(HikariDataSource.class) //
+					.url("jdbc:hsqldb:mem:users-shard-" + shard) //
+					.username("sa") //
+					.build();
+			dataSource.setPoolName("shard-" + shard);
+			new ResourceDatabasePopulator(new ClassPathResource("db/shard-schema.sql")).execute(dataSource);
+			new JdbcTemplate(dataSource).execute("create sequence hibernate_sequence start with "
+					+ (shard + 1) + " increment by " + shards.count());
+			dataSources.add(dataSource);
+		}
+		return new ShardRoutingDataSource(dataSources);
+	}
+
+	@Bean
+	@Primary
+	DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+	}
+
+	@Bean
+	PlatformTransactionManagerCustomizer<AbstractPlatformTransactionManager> shardTransactionSynchronization() {
+		return transactionManager -> transactionManager.setTransactionSynchronization(
+				AbstractPlatformTransactionManager.SYNCHRONIZATION_ON_ACTUAL_TRANSACTION);
+	}
+}
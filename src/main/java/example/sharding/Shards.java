@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+/**
+ * Selects the shard database work is routed to. Callers run work on a shard and all connections
+ * obtained on the current thread while it runs are taken from that shard's database, see
+ * {@link ShardRoutingDataSource}. Keys are assigned to shards by a stable hash so that the same key
+ * always ends up on the same shard.
+ * <p>
+ * Transactions bind to a single shard: the shard has to be selected before the first statement of
+ * a transaction is executed and can't be switched within one. Without sharding enabled there is a
+ * single shard and selecting it has no effect.
+ */
+@Component
+public class Shards {
+	private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+	private final int count;
+
+	public Shards(@Value("${users.sharding.enabled:false}") final boolean enabled,
+			@Value("${users.sharding.count:4}") final int count) {
+		Assert.isTrue(!enabled || count > 0, "Shard count must be greater than zero!");
+		this.count = enabled ? count : 1;
+	}
+
+	/**
+	 * Returns the number of shards.
+	 *
+	 * @return
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Returns the shard the given key is stored on.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @return
+	 */
+	public int shardFor(String key) {
+		Assert.notNull(key, "Key must not be null!");
+		if (count == 1) {
+			return 0;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(key.getBytes(StandardCharsets.UTF_8));
+		return (int) (crc.getValue() % count);
+	}
+
+	/**
+	 * Runs the given action with database work on the current thread routed to the shard of the
+	 * given key.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @param action must not be {@literal null}.
+	 * @return the result of the action.
+	 */
+	public <T> T onShardOf(String key, Supplier<T> action) {
+		return on(shardFor(key), action);
+	}
+
+	/**
+	 * Runs the given action with database work on the current thread routed to the given shard.
+	 * The routing in place before is restored afterwards.
+	 *
+	 * @param shard must be between zero and {@link #count()}.
+	 * @param action must not be {@literal null}.
+	 * @return the result of the action.
+	 */
+	public <T> T on(int shard, Supplier<T> action) {
+		Assert.isTrue(shard >= 0 && shard < count, "Invalid shard " + shard + "!");
+		Assert.notNull(action, "Action must not be null!");
+		Integer previous = CURRENT.get();
+		CURRENT.set(shard);
+		try {
+			return action.get();
+		} finally {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Runs the given action on every shard, one after the other, and returns the results in shard
+	 * order. The shards are not queried in parallel on purpose: the action runs on the calling
+	 * thread, so it may use transactions and other state bound to that thread.
+	 *
+	 * @param action must not be {@literal null}.
+	 * @return
+	 */
+	public <T> List<T> onEach(Supplier<T> action) {
+		List<T> results = new ArrayList<>(count);
+		for (int shard = 0; shard < count; shard++) {
+			results.add(on(shard, action));
+		}
+		return results;
+	}
+
+	/**
+	 * Merges the given lists, each sorted by the given {@link Comparator}, into a single sorted list
+	 * skipping the first {@code skip} elements and containing at most {@code limit} elements.
+	 *
+	 * @param sorted must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param skip the number of leading elements to drop.
+	 * @param limit the maximum number of elements to return.
+	 * @return
+	 */
+	public static <T> List<T> merge(List<? extends List<? extends T>> sorted,
+			Comparator<? super T> comparator, long skip, int limit) {
+		if (limit <= 0) {
+			return Collections.emptyList();
+		}
+		PriorityQueue<Cursor<T>> cursors = new PriorityQueue<>(Math.max(1, sorted.size()),
+				(left, right) -> comparator.compare(left.head, right.head));
+		for (List<? extends T> list : sorted) {
+			Cursor<T> cursor = new Cursor<>(list.iterator());
+			if (cursor.advance()) {
+				cursors.add(cursor);
+			}
+		}
+		List<T> result = new ArrayList<>(Math.min(limit, 64));
+		long skipped = 0;
+		while (!cursors.isEmpty() && result.size() < limit) {
+			Cursor<T> cursor = cursors.poll();
+			if (skipped < skip) {
+				skipped++;
+			} else {
+				result.add(cursor.head);
+			}
+			if (cursor.advance()) {
+				cursors.add(cursor);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the shard selected for the current thread, {@literal null} if none.
+	 *
+	 * @return
+	 */
+	static Integer current() {
+		return CURRENT.get();
+	}
+
+	private static final class Cursor<T> {
+		private final Iterator<? extends T> iterator;
+		private T head;
+
+		Cursor(Iterator<? extends T> iterator) {
+			this.iterator = iterator;
+		}
+
+		boolean advance() {
+			if (!iterator.hasNext()) {
+				return false;
+			}
+			head = iterator.next();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads for the same key: the first caller runs the load, callers arriving
+ * while it is in flight wait for and share its result instead of running their own. Nothing is
+ * cached beyond the lifetime of a load.
+ *
+ * @param <K> the key type, must implement {@link Object#equals(Object)} and
+ *        {@link Object#hashCode()}.
+ * @param <V> the result type.
+ */
+class SingleFlight<K, V> {
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the result of the load in flight for the given key or runs the given loader if there
+	 * is none. Exceptions thrown by the loader are rethrown to all callers sharing the load.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @param loader must not be {@literal null}.
+	 * @return
+	 */
+	V execute(K key, Supplier<V> loader) {
+		CompletableFuture<V> future = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+		if (existing != null) {
+			return await(existing);
+		}
+		try {
+			V result = loader.get();
+			future.complete(result);
+			return result;
+		} catch (RuntimeException | Error o_O) {
+			future.completeExceptionally(o_O);
+			throw o_O;
+		} finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	/**
+	 * Returns the number of callers waiting for the load in flight for the given key.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @return
+	 */
+	int waiters(K key) {
+		CompletableFuture<V> future = inFlight.get(key);
+		return future == null ? 0 : future.getNumberOfDependents();
+	}
+
+	private static <V> V await(CompletableFuture<V> future) {
+		try {
+			return future.join();
+		} catch (CompletionException o_O) {
+			Throwable cause = o_O.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw o_O;
+		}
+	}
+}
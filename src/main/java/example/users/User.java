@@ -16,8 +16,10 @@ package example.users;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.Table;
 
 /**
  * A {@link User} domain object. The primary entity of this example. Basically a combination of a
@@ -26,6 +28,7 @@ import javax.persistence.PreUpdate;
  * @author Oliver Gierke
  */
 @Entity
+@Table(indexes = @Index(name = "user_username_idx", columnList = "username"))
 public class User {
 	@GeneratedValue
 	@Id
@@ -13,16 +13,32 @@
  */
 package example.users;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import example.outbox.Outbox;
+import example.profiling.PasswordHashEvent;
+import example.profiling.UserLookupEvent;
+import example.sharding.Shards;
 
 /**
- * Domain service to register {@link User}s in the system.
+ * Domain service to register {@link User}s in the system. {@link User}s are stored on the shard
+ * selected by their {@link Username}, queries not tied to a single {@link Username} are run against
+ * all {@link Shards} and their results merged. Such methods don't start a transaction themselves as
+ * a transaction is bound to a single shard.
  *
  * @author Oliver Gierke
  */
@@ -31,9 +47,14 @@ import org.springframework.util.Assert;
 public class UserManagement {
 	private final UserRepository repository;
 	private final PasswordEncoder encoder;
+	private final Outbox outbox;
+	private final UsernameIndex index;
+	private final Shards shards;
+	final SingleFlight<Username, Optional<User>> lookups = new SingleFlight<>();
 
 	/**
-	 * Registers a {@link User} with the given {@link Username} and {@link Password}.
+	 * Registers a {@link User} with the given {@link Username} and {@link Password} and publishes a
+	 * {@link UserRegistered} event through the {@link Outbox}.
 	 *
 	 * @param username must not be {@literal null}.
 	 * @param password must not be {@literal null}.
@@ -42,37 +63,148 @@ public class UserManagement {
 	public User register(Username username, Password password) {
 		Assert.notNull(username, "Username must not be null!");
 		Assert.notNull(password, "Password must not be null!");
-		repository.findByUsername(username).ifPresent(user -> {
-			throw new IllegalArgumentException("User with that name already exists!");
+		return shards.onShardOf(username.toString(), () -> {
+			repository.findByUsername(username).ifPresent(user -> {
+				throw new IllegalArgumentException("User with that name already exists!");
+			});
+			Password encryptedPassword = Password.encrypted(encode(password));
+			User user = repository.save(new User(username, encryptedPassword));
+			outbox.append(new UserRegistered(user.getId(), username, Instant.now()));
+			index.add(username);
+			return user;
 		});
-		Password encryptedPassword = Password.encrypted(encoder.encode(password));
-		return repository.save(new User(username, encryptedPassword));
 	}
 
 	/**
-	 * Returns a {@link Page} of {@link User} for the given {@link Pageable}.
+	 * Deletes the {@link User} with the given {@link Username}, if present, and removes it from the
+	 * {@link UsernameIndex}. Only reachable through this API, the web layer doesn't delete users.
+	 *
+	 * @param username must not be {@literal null}.
+	 */
+	public void delete(Username username) {
+		Assert.notNull(username, "Username must not be null!");
+		shards.onShardOf(username.toString(), () -> {
+			repository.findByUsername(username).ifPresent(user -> {
+				repository.delete(user);
+				index.remove(username);
+			});
+			return null;
+		});
+	}
+
+	/**
+	 * Returns a {@link Page} of {@link User} for the given {@link Pageable}. With more than one
+	 * shard, {@link User}s are always ordered by id: every shard returns its first users up to the
+	 * end of the requested page, but no more than it holds, and the results are merged. Pages past
+	 * the last {@link User} are answered from the shards' counts alone.
 	 *
 	 * @param pageable must not be {@literal null}.
 	 * @return
 	 */
+	@Transactional(TxType.SUPPORTS)
 	public Page<User> findAll(Pageable pageable) {
 		Assert.notNull(pageable, "Pageable must not be null!");
-		return repository.findAll(pageable);
+		if (shards.count() == 1) {
+			return repository.findAll(pageable);
+		}
+		Pageable byId = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+				Sort.by("id"));
+		List<Long> counts = shards.onEach(repository::count);
+		long total = counts.stream().mapToLong(Long::longValue).sum();
+		if (byId.getOffset() >= total) {
+			return new PageImpl<>(Collections.emptyList(), byId, total);
+		}
+		long pageEnd = byId.getOffset() + byId.getPageSize();
+		List<List<User>> heads = new ArrayList<>(shards.count());
+		for (int shard = 0; shard < shards.count(); shard++) {
+			int limit = (int) Math.min(Math.min(pageEnd, counts.get(shard)), Integer.MAX_VALUE);
+			if (limit == 0) {
+				heads.add(Collections.emptyList());
+				continue;
+			}
+			Pageable upToPageEnd = PageRequest.of(0, limit, byId.getSort());
+			heads.add(shards.on(shard, () -> repository.findAllBy(upToPageEnd)));
+		}
+		List<User> content = Shards.merge(heads, Comparator.comparing(User::getId),
+				byId.getOffset(), byId.getPageSize());
+		return new PageImpl<>(content, byId, total);
+	}
+
+	/**
+	 * Returns the number of registered {@link User}s.
+	 *
+	 * @return
+	 */
+	@Transactional(TxType.SUPPORTS)
+	public long count() {
+		return shards.onEach(repository::count).stream().mapToLong(Long::longValue).sum();
 	}
 
 	/**
-	 * Returns the {@link User} with the given {@link Username}.
+	 * Returns the {@link User} with the given {@link Username}. Concurrent lookups for the same
+	 * {@link Username} are coalesced into a single query and share the returned {@link User}
+	 * instance, which must thus be treated as read-only. Doesn't start a transaction so that callers
+	 * waiting for a lookup in flight don't hold on to a connection.
 	 *
 	 * @param username must not be {@literal null}.
 	 * @return
 	 */
+	@Transactional(TxType.SUPPORTS)
 	public Optional<User> findByUsername(Username username) {
 		Assert.notNull(username, "Username must not be null!");
-		return repository.findByUsername(username);
+		UserLookupEvent event = new UserLookupEvent();
+		event.begin();
+		try {
+			Optional<User> user = lookups.execute(username, () -> shards
+					.onShardOf(username.toString(), () -> repository.findByUsername(username)));
+			event.setOutcome(user.isPresent() ? "found" : "absent");
+			return user;
+		} finally {
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns up to {@code limit} {@link Username}s starting with the given prefix in alphabetical
+	 * order. Answered from the in-memory {@link UsernameIndex} if available, by an indexed
+	 * {@code LIKE} query otherwise.
+	 *
+	 * @param prefix must not be {@literal null} or empty.
+	 * @param limit must be greater than zero.
+	 * @return
+	 */
+	@Transactional(TxType.SUPPORTS)
+	public List<Username> search(String prefix, int limit) {
+		Assert.hasText(prefix, "Prefix must not be null or empty!");
+		Assert.isTrue(limit > 0, "Limit must be greater than zero!");
+		if (index.isAvailable()) {
+			return index.search(prefix, limit);
+		}
+		String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_")
+				+ "%";
+		Pageable firstResults = PageRequest.of(0, limit);
+		return Shards.merge(shards.onEach(() -> repository.findUsernamesLike(pattern, firstResults)),
+				Comparator.comparing(Username::toString), 0, limit);
+	}
+
+	private String encode(Password password) {
+		PasswordHashEvent event = new PasswordHashEvent();
+		event.begin();
+		try {
+			String hash = encoder.encode(password);
+			event.setOutcome("hashed");
+			return hash;
+		} finally {
+			event.commit();
+		}
 	}
 
-	public UserManagement(final UserRepository repository, final PasswordEncoder encoder) {
+	public UserManagement(final UserRepository repository, final PasswordEncoder encoder,
+			final Outbox outbox, final UsernameIndex index, final Shards shards) {
 		this.repository = repository;
 		this.encoder = encoder;
+		this.outbox = outbox;
+		this.index = index;
+		this.shards = shards;
 	}
 }
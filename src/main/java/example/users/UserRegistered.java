@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users;
+
+import java.time.Instant;
+
+/**
+ * Domain event to signal that a {@link User} was registered. Written to the outbox in the same
+ * transaction as the {@link User} itself so that it is only ever relayed for committed users.
+ */
+public class UserRegistered {
+	private final Long userId;
+	private final Username username;
+	private final Instant registeredAt;
+
+	UserRegistered(final Long userId, final Username username, final Instant registeredAt) {
+		this.userId = userId;
+		this.username = username;
+		this.registeredAt = registeredAt;
+	}
+
+	public Long getUserId() {
+		return this.userId;
+	}
+
+	public Username getUsername() {
+		return this.username;
+	}
+
+	public Instant getRegisteredAt() {
+		return this.registeredAt;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "UserRegistered(userId=" + userId + ", username=" + username + ", registeredAt="
+				+ registeredAt + ")";
+	}
+}
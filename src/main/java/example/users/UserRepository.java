@@ -15,8 +15,17 @@
  */
 package example.users;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 /**
@@ -33,4 +42,33 @@ interface UserRepository extends PagingAndSortingRepository<User, Long> {
 	 * @return
 	 */
 	Optional<User> findByUsername(Username username);
+
+	/**
+	 * Returns the {@link User}s of the given {@link Pageable} without counting all {@link User}s.
+	 *
+	 * @param pageable must not be {@literal null}.
+	 * @return
+	 */
+	List<User> findAllBy(Pageable pageable);
+
+	/**
+	 * Returns the {@link Username}s matching the given {@code LIKE} pattern in alphabetical order.
+	 * Backed by the index on the username column as long as the pattern only has a trailing
+	 * wildcard. Uses {@code \} as escape character.
+	 *
+	 * @param pattern must not be {@literal null}.
+	 * @param pageable must not be {@literal null}.
+	 * @return
+	 */
+	@Query("select u.username from User u where u.username.username like ?1 escape '\\' order by u.username.username")
+	List<Username> findUsernamesLike(String pattern, Pageable pageable);
+
+	/**
+	 * Streams the {@link Username}s of all {@link User}s. Has to be consumed within a transaction.
+	 *
+	 * @return
+	 */
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+	@Query("select u.username from User u")
+	Stream<Username> streamAllUsernames();
 }
@@ -15,6 +15,7 @@ package example.users;
 
 import javax.persistence.Embeddable;
 import org.springframework.util.StringUtils;
+import com.fasterxml.jackson.annotation.JsonValue;
 
 /**
  * value object to represent user names.
@@ -47,6 +48,7 @@ public class Username {
 	 * @see java.lang.Object#toString()
 	 */
 	@Override
+	@JsonValue
 	public String toString() {
 		return username;
 	}
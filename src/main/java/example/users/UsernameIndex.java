@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import example.sharding.Shards;
+
+/**
+ * In-memory, sorted index of all {@link Username}s to answer prefix searches without hitting the
+ * database. Loaded once the application is ready by streaming the user table and kept up to date
+ * by {@link UserManagement} as users are registered and deleted. Changes made within a transaction
+ * are only applied once it commits.
+ *
+ * @see UserManagement#search(String, int)
+ */
+@Component
+class UsernameIndex {
+	private final NavigableSet<String> usernames = new ConcurrentSkipListSet<>();
+	private final UserRepository repository;
+	private final TransactionTemplate transactions;
+	private final Shards shards;
+	private final boolean enabled;
+	private volatile boolean loaded;
+
+	/**
+	 * Populates the index from the database, shard by shard.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		if (!enabled) {
+			return;
+		}
+		shards.onEach(() -> transactions.execute(status -> {
+			try (Stream<Username> stream = repository.streamAllUsernames()) {
+				stream.forEach(username -> usernames.add(username.toString()));
+			}
+			return null;
+		}));
+		this.loaded = true;
+	}
+
+	/**
+	 * Returns whether the index is enabled and completely loaded, i.e. whether
+	 * {@link #search(String, int)} can be used instead of a database query.
+	 *
+	 * @return
+	 */
+	boolean isAvailable() {
+		return loaded;
+	}
+
+	/**
+	 * Returns up to {@code limit} {@link Username}s starting with the given prefix in alphabetical
+	 * order.
+	 *
+	 * @param prefix must not be {@literal null} or empty.
+	 * @param limit the maximum number of results.
+	 * @return
+	 */
+	List<Username> search(String prefix, int limit) {
+		if (limit <= 0) {
+			return Collections.emptyList();
+		}
+		List<Username> result = new ArrayList<>(Math.min(limit, 16));
+		for (String candidate : usernames.tailSet(prefix, true)) {
+			if (!candidate.startsWith(prefix) || result.size() == limit) {
+				break;
+			}
+			result.add(new Username(candidate));
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the given {@link Username} to the index once the current transaction commits.
+	 *
+	 * @param username must not be {@literal null}.
+	 */
+	void add(Username username) {
+		afterCommit(() -> usernames.add(username.toString()));
+	}
+
+	/**
+	 * Removes the given {@link Username} from the index once the current transaction commits.
+	 *
+	 * @param username must not be {@literal null}.
+	 */
+	void remove(Username username) {
+		afterCommit(() -> usernames.remove(username.toString()));
+	}
+
+	private void afterCommit(Runnable action) {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	public UsernameIndex(final UserRepository repository,
+			final PlatformTransactionManager transactionManager, final Shards shards,
+			@Value("${users.search.index.enabled:true}") final boolean enabled) {
+		this.repository = repository;
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.transactions.setReadOnly(true);
+		this.shards = shards;
+		this.enabled = enabled;
+	}
+}
@@ -13,7 +13,6 @@
  */
 package example.users.web;
 
-import java.util.List;
 import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,13 +26,14 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.servlet.view.RedirectView;
+import example.expressions.Expressions;
+import example.profiling.UserRegistrationEvent;
 import example.users.Password;
 import example.users.User;
 import example.users.UserManagement;
 import example.users.Username;
-import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 /**
@@ -50,10 +50,19 @@ import org.springframework.security.access.prepost.PreAuthorize;
 @Controller
 @RequestMapping("/users")
 class UserController {
+	private static final String NOT_EMPTY = "#root != null and #root.length() > 0";
 	private final UserManagement userManagement;
+	private final Expressions expressions;
+	private final RedirectView usersRedirect;
+	private final EvaluationContext validationContext;
 
-	public UserController(final UserManagement userManagement) {
+	public UserController(final UserManagement userManagement, final Expressions expressions) {
 		this.userManagement = userManagement;
+		this.expressions = expressions;
+		this.validationContext = SimpleEvaluationContext.forReadOnlyDataBinding()
+				.withInstanceMethods().build();
+		this.usersRedirect = new RedirectView("/users");
+		this.usersRedirect.setPropagateQueryParams(true);
 	}
 
 	/**
@@ -72,7 +81,9 @@ class UserController {
 
 	/**
 	 * Registers a new {@link User} for the data provided by the given {@link UserForm}. Note, how
-	 * an interface is used to bind request parameters.
+	 * an interface is used to bind request parameters. The {@link RedirectView} returned doesn't
+	 * hold any per-request state and is thus shared between requests. Each registration attempt is
+	 * recorded as {@link UserRegistrationEvent}.
 	 *
 	 * @param userForm the request data bound to the {@link UserForm} instance.
 	 * @param binding the result of the binding operation.
@@ -81,15 +92,21 @@ class UserController {
 	 */
 	@RequestMapping(method = RequestMethod.POST)
 	public Object register(UserForm userForm, BindingResult binding, Model model) {
-		userForm.validate(binding, userManagement);
-		if (binding.hasErrors()) {
-			return "users";
+		UserRegistrationEvent event = new UserRegistrationEvent();
+		event.begin();
+		try {
+			Username username = userForm.validate(binding, userManagement, expressions,
+					validationContext);
+			if (binding.hasErrors()) {
+				event.setOutcome("rejected");
+				return "users";
+			}
+			userManagement.register(username, Password.raw(userForm.getPassword()));
+			event.setOutcome("registered");
+			return usersRedirect;
+		} finally {
+			event.commit();
 		}
-		userManagement.register(new Username(userForm.getUsername()),
-				Password.raw(userForm.getPassword()));
-		RedirectView redirectView = new RedirectView("/users");
-		redirectView.setPropagateQueryParams(true);
-		return redirectView;
 	}
 
 	/**
@@ -110,9 +127,7 @@ class UserController {
 	@RequestMapping(path = "/delete", method = RequestMethod.POST)
 	public Object deleteUser(UserForm userForm, BindingResult binding, Model model) {
 		// Actually delete a user here
-		RedirectView redirectView = new RedirectView("/users");
-		redirectView.setPropagateQueryParams(true);
-		return redirectView;
+		return usersRedirect;
 	}
 
 	/**
@@ -160,34 +175,40 @@ class UserController {
 		 *
 		 * @param errors
 		 * @param userManagement
+		 * @param expressions
+		 * @param context the {@link EvaluationContext} to evaluate validation expressions in,
+		 *        shared between requests as it is read-only.
+		 * @return the {@link Username} parsed from the form so that it doesn't need to be created
+		 *         again for registration, {@literal null} if the username has an invalid format.
 		 */
-		public void validate(BindingResult errors, UserManagement userManagement) {
-			if (!isFieldValid(getUsername())) {
+		public Username validate(BindingResult errors, UserManagement userManagement,
+				Expressions expressions, EvaluationContext context) {
+			if (!isFieldValid(expressions, context, getUsername())) {
 				errors.rejectValue("username", "user.username.empty");
 			}
-			if (!isFieldValid(getPassword())) {
+			if (!isFieldValid(expressions, context, getPassword())) {
 				errors.rejectValue("password", "user.password.empty");
 			}
-			if (!isFieldValid(getRepeatedPassword())) {
+			if (!isFieldValid(expressions, context, getRepeatedPassword())) {
 				errors.rejectValue("repeatedPassword", "user.repeatedPassword.empty");
 			}
 			if (!getPassword().equals(getRepeatedPassword())) {
 				errors.rejectValue("repeatedPassword", "user.password.no-match");
 			}
 			try {
-				userManagement.findByUsername(new Username(getUsername()))
+				Username username = new Username(getUsername());
+				userManagement.findByUsername(username)
 						.ifPresent(user -> errors.rejectValue("username", "user.username.exists"));
+				return username;
 			} catch (IllegalArgumentException o_O) {
 				errors.rejectValue("username", "user.username.invalidFormat");
+				return null;
 			}
 		}
 
-		private boolean isFieldValid(String field) {
-			StandardEvaluationContext context = new StandardEvaluationContext(this);
-			SpelExpressionParser parser = new SpelExpressionParser();
-			Expression expression = parser.parseExpression("{\"" + field + "\".length > 0}");
-			List<?> res = (List<?>) expression.getValue(context);
-			return (boolean) res.get(0);
+		private boolean isFieldValid(Expressions expressions, EvaluationContext context,
+				String field) {
+			return expressions.evaluate(NOT_EMPTY, context, field, Boolean.class);
 		}
 	}
 }
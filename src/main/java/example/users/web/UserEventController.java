@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users.web;
+
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import example.outbox.InMemoryOutboxSink;
+
+/**
+ * JSON change feed of the user events relayed from the outbox to the {@link InMemoryOutboxSink}.
+ * Only available with {@code outbox.sink=memory}, other sinks have consumers of their own.
+ */
+@RestController
+@RequestMapping("/api/users")
+class UserEventController {
+	private static final int MAX_LIMIT = 1000;
+	private final ObjectProvider<InMemoryOutboxSink> sink;
+
+	public UserEventController(final ObjectProvider<InMemoryOutboxSink> sink) {
+		this.sink = sink;
+	}
+
+	/**
+	 * Returns the events following the given position in the order they were relayed. Consumers
+	 * pass the position of the last event they have seen to read the feed incrementally.
+	 *
+	 * @param after the position of the last event seen, {@literal 0} to read from the start.
+	 * @param limit the maximum number of events, capped at {@value #MAX_LIMIT}.
+	 * @return
+	 */
+	@GetMapping("/events")
+	public List<InMemoryOutboxSink.Entry> events(@RequestParam(defaultValue = "0") long after,
+			@RequestParam(defaultValue = "100") int limit) {
+		InMemoryOutboxSink events = sink.getIfAvailable();
+		if (events == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+					"Event feed requires outbox.sink=memory");
+		}
+		if (limit <= 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+		}
+		return events.getEntriesAfter(after, Math.min(limit, MAX_LIMIT));
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users.web;
+
+import java.util.Collections;
+import java.util.List;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import example.users.UserManagement;
+import example.users.Username;
+
+/**
+ * JSON API for username autocompletion and admin search.
+ */
+@RestController
+@RequestMapping("/api/users")
+class UserSearchController {
+	private static final int MAX_LIMIT = 100;
+	private final UserManagement userManagement;
+
+	public UserSearchController(final UserManagement userManagement) {
+		this.userManagement = userManagement;
+	}
+
+	/**
+	 * Returns the {@link Username}s starting with the given prefix in alphabetical order.
+	 *
+	 * @param prefix the prefix to search for, an empty prefix yields no results.
+	 * @param limit the maximum number of results, capped at {@value #MAX_LIMIT}.
+	 * @return
+	 */
+	@GetMapping("/search")
+	public List<Username> search(@RequestParam(defaultValue = "") String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		if (!StringUtils.hasText(prefix) || limit <= 0) {
+			return Collections.emptyList();
+		}
+		return userManagement.search(prefix, Math.min(limit, MAX_LIMIT));
+	}
+}
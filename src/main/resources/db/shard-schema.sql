@@ -0,0 +1,3 @@
+create table user (id bigint not null, password varchar(255), username varchar(255), primary key (id));
+create index user_username_idx on user (username);
+create table outbox_message (id bigint not null, created_at timestamp, payload varchar(4000), type varchar(255), primary key (id));
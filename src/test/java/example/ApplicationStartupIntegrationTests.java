@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import example.users.UserManagement;
+
+/**
+ * Integration tests for the startup of {@link Application}: the application has to be ready before the sample users
+ * are created in the background, and within {@link #MAX_STARTUP}. That bound is generous on purpose, it only catches
+ * gross regressions such as work moved back onto the startup path. To compare startup times between profiles, follow
+ * the procedure in the README instead.
+ */
+class ApplicationStartupIntegrationTests {
+
+	private static final Duration MAX_STARTUP = Duration.ofSeconds(60);
+
+	@Test
+	void defaultProfile() throws Exception {
+		assertReadyBeforeSampleUsersAreCreated("default");
+	}
+
+	@Test
+	void fastStartupProfile() throws Exception {
+		assertReadyBeforeSampleUsersAreCreated("fast-startup");
+	}
+
+	private static void assertReadyBeforeSampleUsersAreCreated(String profile) throws Exception {
+
+		AtomicLong usersWhenReady = new AtomicLong(-1);
+		SpringApplication application = new SpringApplication(Application.class);
+		application.addListeners((ApplicationListener<ApplicationReadyEvent>) event -> usersWhenReady
+				.set(event.getApplicationContext().getBean(UserManagement.class).count()));
+
+		long start = System.nanoTime();
+		try (ConfigurableApplicationContext context = application.run("--spring.profiles.active=" + profile,
+				"--server.port=0", "--spring.datasource.url=jdbc:hsqldb:mem:startup-" + profile)) {
+
+			Duration startup = Duration.ofNanos(System.nanoTime() - start);
+
+			assertThat(startup).as("time until ready with profile %s", profile).isLessThan(MAX_STARTUP);
+			assertThat(usersWhenReady.get()).isBetween(0L, 40L);
+
+			UserManagement userManagement = context.getBean(UserManagement.class);
+			long deadline = System.currentTimeMillis() + 60_000;
+			while (userManagement.count() < 41) {
+				assertThat(System.currentTimeMillis()).as("sample users created in time").isLessThan(deadline);
+				Thread.sleep(100);
+			}
+		}
+	}
+}
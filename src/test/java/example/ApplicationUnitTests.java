@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import example.users.Password;
+import example.users.User;
+import example.users.UserManagement;
+import example.users.Username;
+
+/**
+ * Unit tests for the creation of sample users by {@link Application}.
+ */
+class ApplicationUnitTests {
+
+	@Test
+	void createsOnlyMissingSampleUsers() {
+		UserManagement userManagement = mock(UserManagement.class);
+		when(userManagement.findByUsername(any())).thenReturn(Optional.empty());
+		for (int index = 0; index < 10; index++) {
+			when(userManagement.findByUsername(new Username("user" + index)))
+					.thenReturn(Optional.of(mock(User.class)));
+		}
+
+		application(userManagement).init();
+
+		verify(userManagement, never()).register(eq(new Username("user9")), any(Password.class));
+		verify(userManagement).register(eq(new Username("user10")), any(Password.class));
+		verify(userManagement, times(31)).register(any(Username.class), any(Password.class));
+	}
+
+	@Test
+	void keepsCreatingSampleUsersIfOneWasRegisteredConcurrently() {
+		UserManagement userManagement = mock(UserManagement.class);
+		when(userManagement.findByUsername(any())).thenReturn(Optional.empty());
+		when(userManagement.register(eq(new Username("user5")), any(Password.class)))
+				.thenThrow(new IllegalArgumentException("User with that name already exists!"));
+
+		application(userManagement).init();
+
+		verify(userManagement).register(eq(new Username("user40")), any(Password.class));
+		verify(userManagement, times(41)).register(any(Username.class), any(Password.class));
+	}
+
+	private static Application application(UserManagement userManagement) {
+		Application application = new Application();
+		application.userManagement = userManagement;
+		application.taskExecutor = Runnable::run;
+		return application;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.expressions;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * JMH benchmark of the form field validation in {@code UserController}: the former expression with
+ * the field value concatenated into it, parsed for every value, against the constant expression
+ * evaluated against the value, interpreted and through {@link Expressions}, i.e. cached and
+ * compiled. See the README for how to run it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionsBenchmark {
+	private static final String NOT_EMPTY = "#root != null and #root.length() > 0";
+	private static final String[] VALUES = { "user1", "", "secret-password", "x", "another-user" };
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+	private final StandardEvaluationContext standardContext = new StandardEvaluationContext();
+	private final EvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding()
+			.withInstanceMethods().build();
+	private final Expression interpreted = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.OFF, null)).parseExpression(NOT_EMPTY);
+	private final Expressions expressions = new Expressions(256, 10);
+	private int next;
+
+	@Benchmark
+	public Object concatenatedAndParsed() {
+		String value = nextValue();
+		return parser.parseExpression("{\"" + value + "\".length > 0}").getValue(standardContext);
+	}
+
+	@Benchmark
+	public Object templateInterpreted() {
+		return interpreted.getValue(context, nextValue(), Boolean.class);
+	}
+
+	@Benchmark
+	public Object templateCachedAndCompiled() {
+		return expressions.evaluate(NOT_EMPTY, context, nextValue(), Boolean.class);
+	}
+
+	private String nextValue() {
+		next = (next + 1) % VALUES.length;
+		return VALUES[next];
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.expressions;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+/**
+ * Unit tests for {@link Expressions}, using the expression {@code UserController} validates form
+ * fields with.
+ */
+class ExpressionsUnitTests {
+	private static final String NOT_EMPTY = "#root != null and #root.length() > 0";
+
+	private final Expressions expressions = new Expressions(2, 10);
+	private final EvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding()
+			.withInstanceMethods().build();
+
+	@Test
+	void evaluatesAgainstTheGivenRootObject() {
+		assertThat(expressions.evaluate(NOT_EMPTY, context, "value", Boolean.class)).isTrue();
+		assertThat(expressions.evaluate(NOT_EMPTY, context, "", Boolean.class)).isFalse();
+		assertThat(expressions.evaluate(NOT_EMPTY, context, null, Boolean.class)).isFalse();
+	}
+
+	@Test
+	void parsesExpressionOnceForAllValues() {
+		for (int i = 0; i < 100; i++) {
+			expressions.evaluate(NOT_EMPTY, context, "secret" + i, Boolean.class);
+		}
+
+		Expressions.Statistics statistics = expressions.getStatistics();
+		assertThat(statistics.getCachedExpressions()).isEqualTo(1);
+		assertThat(statistics.getParses()).isEqualTo(1);
+	}
+
+	@Test
+	void compilesExpressionAfterThreshold() {
+		for (int i = 0; i < 10; i++) {
+			expressions.evaluate(NOT_EMPTY, context, "value" + i, Boolean.class);
+		}
+		assertThat(expressions.getStatistics().getCompilations()).isEqualTo(1);
+
+		assertThat(expressions.evaluate(NOT_EMPTY, context, "value", Boolean.class)).isTrue();
+		assertThat(expressions.evaluate(NOT_EMPTY, context, "", Boolean.class)).isFalse();
+		assertThat(expressions.evaluate(NOT_EMPTY, context, null, Boolean.class)).isFalse();
+
+		Expressions.Statistics statistics = expressions.getStatistics();
+		assertThat(statistics.getInterpretedEvaluations()).isEqualTo(10);
+		assertThat(statistics.getCompiledEvaluations()).isEqualTo(3);
+		assertThat(statistics.getCompilationFailures()).isZero();
+	}
+
+	@Test
+	void interpretsAgainIfCompiledEvaluationFails() {
+		for (int i = 0; i < 10; i++) {
+			expressions.evaluate(NOT_EMPTY, context, "value" + i, Boolean.class);
+		}
+		assertThat(expressions.getStatistics().getCompilations()).isEqualTo(1);
+
+		// Compiled for String roots, so a StringBuilder root fails the compiled evaluation
+		assertThat(expressions.evaluate(NOT_EMPTY, context, new StringBuilder("value"),
+				Boolean.class)).isTrue();
+
+		Expressions.Statistics statistics = expressions.getStatistics();
+		assertThat(statistics.getFallbacks()).isEqualTo(1);
+		assertThat(statistics.getCompiledEvaluations()).isZero();
+		assertThat(statistics.getInterpretedEvaluations()).isEqualTo(11);
+
+		for (int i = 0; i < 9; i++) {
+			expressions.evaluate(NOT_EMPTY, context, "value" + i, Boolean.class);
+		}
+		assertThat(expressions.getStatistics().getCompilations()).isEqualTo(2);
+	}
+
+	@Test
+	void boundsNumberOfCachedExpressions() {
+		expressions.evaluate("1 + 1", context, Integer.class);
+		expressions.evaluate("2 + 2", context, Integer.class);
+		expressions.evaluate("3 + 3", context, Integer.class);
+
+		assertThat(expressions.getStatistics().getCachedExpressions()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.outbox;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import example.outbox.InMemoryOutboxSink.Entry;
+
+/**
+ * Unit tests for {@link InMemoryOutboxSink}.
+ */
+class InMemoryOutboxSinkUnitTests {
+
+	@Test
+	void returnsEntriesAfterTheGivenPositionInPublishingOrder() {
+		InMemoryOutboxSink sink = new InMemoryOutboxSink(10);
+		sink.publish(Arrays.asList(message(1), message(2)));
+		sink.publish(Arrays.asList(message(3)));
+
+		assertThat(ids(sink.getEntriesAfter(0, 10))).containsExactly(1L, 2L, 3L);
+		assertThat(sink.getEntriesAfter(0, 10)).extracting(Entry::getPosition)
+				.containsExactly(1L, 2L, 3L);
+		assertThat(ids(sink.getEntriesAfter(2, 10))).containsExactly(3L);
+		assertThat(sink.getEntriesAfter(3, 10)).isEmpty();
+	}
+
+	@Test
+	void doesNotSkipMessagesPublishedOutOfIdentifierOrder() {
+		InMemoryOutboxSink sink = new InMemoryOutboxSink(10);
+		sink.publish(Arrays.asList(message(2), message(6)));
+		List<Entry> read = sink.getEntriesAfter(0, 10);
+
+		sink.publish(Arrays.asList(message(1), message(5)));
+
+		long last = read.get(read.size() - 1).getPosition();
+		assertThat(ids(sink.getEntriesAfter(last, 10))).containsExactly(1L, 5L);
+	}
+
+	@Test
+	void limitsTheNumberOfEntriesReturned() {
+		InMemoryOutboxSink sink = new InMemoryOutboxSink(10);
+		sink.publish(Arrays.asList(message(1), message(2), message(3)));
+
+		assertThat(ids(sink.getEntriesAfter(0, 2))).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void dropsOldestEntriesBeyondCapacity() {
+		InMemoryOutboxSink sink = new InMemoryOutboxSink(2);
+		sink.publish(Arrays.asList(message(1), message(2), message(3)));
+
+		assertThat(ids(sink.getEntriesAfter(0, 10))).containsExactly(2L, 3L);
+	}
+
+	static OutboxMessage message(long id) {
+		OutboxMessage message = new OutboxMessage("UserRegistered", "{\"id\":" + id + "}",
+				Instant.now());
+		ReflectionTestUtils.setField(message, "id", id);
+		return message;
+	}
+
+	private static List<Long> ids(List<Entry> entries) {
+		return entries.stream().map(entry -> entry.getMessage().getId())
+				.collect(Collectors.toList());
+	}
+}
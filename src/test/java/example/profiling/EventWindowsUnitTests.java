@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import example.profiling.EventWindows.Statistics;
+
+/**
+ * Unit tests for {@link EventWindows}.
+ */
+class EventWindowsUnitTests {
+	private static final Instant START = Instant.ofEpochSecond(1_000_000);
+
+	private final EventWindows windows = new EventWindows(Duration.ofSeconds(10), 3);
+
+	@Test
+	void aggregatesDurationsAndOutcomesPerEvent() {
+		record("lookup", "found", 2, 0);
+		record("lookup", "absent", 4, 1);
+		record("lookup", "found", 6, 2);
+		record("hash", "hashed", 100, 3);
+
+		Map<String, Statistics> summary = windows.summarize(Duration.ofSeconds(10), at(5));
+
+		assertThat(summary).containsOnlyKeys("hash", "lookup");
+		Statistics lookup = summary.get("lookup");
+		assertThat(lookup.getCount()).isEqualTo(3);
+		assertThat(lookup.getMeanMillis()).isEqualTo(4.0);
+		assertThat(lookup.getMaxMillis()).isEqualTo(6.0);
+		assertThat(lookup.getOutcomes()).containsEntry("found", 2L).containsEntry("absent", 1L);
+	}
+
+	@Test
+	void rollsOverToNewSlotsAndDropsExpiredOnes() {
+		record("lookup", "found", 1, 0);
+		record("lookup", "found", 1, 10);
+		record("lookup", "found", 1, 20);
+		record("lookup", "found", 1, 30);
+
+		assertThat(windows.summarize(Duration.ofSeconds(30), at(35)).get("lookup").getCount())
+				.isEqualTo(3);
+		assertThat(windows.summarize(Duration.ofSeconds(10), at(35)).get("lookup").getCount())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void dropsEventsOlderThanTheSlotTheyWouldReplace() {
+		record("lookup", "found", 1, 30);
+		record("lookup", "found", 1, 0);
+
+		assertThat(windows.summarize(Duration.ofSeconds(30), at(35)).get("lookup").getCount())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void ignoresEventsAfterTheEndOfTheWindow() {
+		record("lookup", "found", 1, 15);
+
+		assertThat(windows.summarize(Duration.ofSeconds(30), at(5))).isEmpty();
+	}
+
+	@Test
+	void capsWindowsAtRetentionAndSlotLength() {
+		for (int second = 0; second < 60; second += 10) {
+			record("lookup", "found", 1, second);
+		}
+
+		assertThat(windows.getRetention()).isEqualTo(Duration.ofSeconds(30));
+		assertThat(windows.summarize(Duration.ofHours(1), at(55)).get("lookup").getCount())
+				.isEqualTo(3);
+		assertThat(windows.summarize(Duration.ofMillis(1), at(55)).get("lookup").getCount())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void countsMissingOutcomesAsUnknown() {
+		record("lookup", null, 1, 0);
+
+		assertThat(windows.summarize(Duration.ofSeconds(10), at(0)).get("lookup").getOutcomes())
+				.containsEntry("unknown", 1L);
+	}
+
+	private void record(String name, String outcome, long millis, long second) {
+		windows.record(name, outcome, Duration.ofMillis(millis), at(second));
+	}
+
+	private static Instant at(long second) {
+		return START.plusSeconds(second);
+	}
+}
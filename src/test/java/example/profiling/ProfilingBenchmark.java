@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the cost of emitting one of the application's JFR events, with the
+ * {@link ProfilingStream} consuming them and without any recording. Run like
+ * {@code ExpressionsBenchmark}, see the README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfilingBenchmark {
+
+	@Param({ "true", "false" }) boolean streaming;
+
+	private ProfilingStream stream;
+
+	@Setup(Level.Trial)
+	public void start() {
+		if (streaming) {
+			stream = new ProfilingStream(Duration.ofSeconds(10), 30);
+			stream.start();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		if (stream != null) {
+			stream.stop();
+		}
+	}
+
+	@Benchmark
+	public UserLookupEvent emitEvent() {
+		UserLookupEvent event = new UserLookupEvent();
+		event.begin();
+		event.setOutcome("found");
+		event.commit();
+		return event;
+	}
+}
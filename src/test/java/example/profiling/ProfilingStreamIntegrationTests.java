@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.profiling;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import example.profiling.EventWindows.Statistics;
+
+/**
+ * Integration tests for {@link ProfilingStream}, consuming events committed to JFR in this JVM.
+ */
+class ProfilingStreamIntegrationTests {
+	private final ProfilingStream stream = new ProfilingStream(Duration.ofSeconds(1), 300);
+
+	@AfterEach
+	void stop() {
+		stream.stop();
+	}
+
+	@Test
+	void aggregatesCommittedEvents() throws Exception {
+		stream.start();
+		assertThat(stream.isRunning()).isTrue();
+
+		String found = "found-" + UUID.randomUUID();
+		String absent = "absent-" + UUID.randomUUID();
+		for (String outcome : new String[] { found, found, absent }) {
+			UserLookupEvent event = new UserLookupEvent();
+			event.begin();
+			Thread.sleep(5);
+			event.setOutcome(outcome);
+			event.commit();
+		}
+
+		Statistics lookups = awaitOutcomes("example.UserLookup", found, absent);
+		assertThat(lookups.getOutcomes()).containsEntry(found, 2L).containsEntry(absent, 1L);
+		assertThat(lookups.getCount()).isGreaterThanOrEqualTo(3);
+		assertThat(lookups.getMaxMillis()).isGreaterThanOrEqualTo(5.0);
+	}
+
+	@Test
+	void stopsConsumingEvents() {
+		stream.start();
+		stream.stop();
+
+		assertThat(stream.isRunning()).isFalse();
+	}
+
+	/**
+	 * Waits for the given outcomes of the given event to be aggregated. Other tests running in the
+	 * same JVM may emit events as well, which is why the outcomes are unique.
+	 */
+	private Statistics awaitOutcomes(String event, String... outcomes) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (true) {
+			Map<String, Statistics> summary = stream.summarize(Duration.ofMinutes(5));
+			Statistics statistics = summary.get(event);
+			if (statistics != null
+					&& statistics.getOutcomes().keySet().containsAll(Arrays.asList(outcomes))) {
+				return statistics;
+			}
+			assertThat(System.currentTimeMillis()).as("events consumed in time")
+					.isLessThan(deadline);
+			Thread.sleep(100);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.sharding;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import example.users.Password;
+import example.users.User;
+import example.users.UserManagement;
+import example.users.Username;
+
+/**
+ * Integration tests for the {@code sharded} profile, running against one in-memory HSQLDB database
+ * per shard. Wait for the sample users to be created first so that they don't change the data
+ * while it's paged through.
+ */
+@SpringBootTest(properties = "users.search.index.enabled=false")
+@ActiveProfiles("sharded")
+@TestInstance(Lifecycle.PER_CLASS)
+class ShardingIntegrationTests {
+	private static final int USERS = 20;
+
+	@Autowired UserManagement userManagement;
+	@Autowired Shards shards;
+	@Autowired ShardRoutingDataSource shardRoutingDataSource;
+
+	@BeforeAll
+	void registerUsers() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 60_000;
+		while (!userManagement.findByUsername(new Username("user40")).isPresent()) {
+			assertThat(System.currentTimeMillis()).as("sample users created in time")
+					.isLessThan(deadline);
+			Thread.sleep(100);
+		}
+		for (int i = 0; i < USERS; i++) {
+			userManagement.register(new Username("sharded" + i), Password.raw("secret"));
+		}
+	}
+
+	@Test
+	void storesUsersOnTheShardOfTheirUsername() {
+		for (int i = 0; i < USERS; i++) {
+			String username = "sharded" + i;
+			for (int shard = 0; shard < shards.count(); shard++) {
+				Integer stored = shard(shard).queryForObject(
+						"select count(*) from user where username = ?", Integer.class, username);
+				assertThat(stored).as("%s on shard %d", username, shard)
+						.isEqualTo(shard == shards.shardFor(username) ? 1 : 0);
+			}
+		}
+	}
+
+	@Test
+	void findsUsersOnTheirShard() {
+		for (int i = 0; i < USERS; i++) {
+			assertThat(userManagement.findByUsername(new Username("sharded" + i))).isPresent();
+		}
+	}
+
+	@Test
+	void pagesThroughUsersOfAllShardsOrderedById() {
+		long total = userManagement.count();
+		List<Long> ids = IntStream.range(0, (int) (total + 6) / 7)
+				.mapToObj(page -> userManagement.findAll(PageRequest.of(page, 7)))
+				.flatMap(page -> page.getContent().stream()).map(User::getId)
+				.collect(Collectors.toList());
+
+		assertThat(ids).hasSize((int) total).doesNotHaveDuplicates().isSorted();
+	}
+
+	@Test
+	void returnsEmptyPagesPastTheLastUser() {
+		long total = userManagement.count();
+
+		Page<User> pastLast = userManagement.findAll(PageRequest.of((int) total, 1));
+		Page<User> deep = userManagement.findAll(PageRequest.of(500_000_000, 5));
+
+		assertThat(pastLast.getContent()).isEmpty();
+		assertThat(pastLast.getTotalElements()).isEqualTo(total);
+		assertThat(deep.getContent()).isEmpty();
+		assertThat(deep.getTotalElements()).isEqualTo(total);
+	}
+
+	@Test
+	void searchesUsernamesOnAllShards() {
+		List<Username> usernames = userManagement.search("sharded1", 100);
+
+		assertThat(usernames).extracting(Username::toString).containsExactly("sharded1",
+				"sharded10", "sharded11", "sharded12", "sharded13", "sharded14", "sharded15",
+				"sharded16", "sharded17", "sharded18", "sharded19");
+	}
+
+	private JdbcTemplate shard(int shard) {
+		return new JdbcTemplate(shardRoutingDataSource.getResolvedDataSources().get(shard));
+	}
+}
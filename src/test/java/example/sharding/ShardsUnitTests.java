@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.sharding;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Shards}.
+ */
+class ShardsUnitTests {
+	private final Shards shards = new Shards(true, 4);
+
+	@Test
+	void assignsKeysToStableShards() {
+		for (int i = 0; i < 100; i++) {
+			String key = "user" + i;
+			assertThat(shards.shardFor(key)).isBetween(0, 3).isEqualTo(shards.shardFor(key));
+		}
+		List<Integer> used = IntStream.range(0, 100).mapToObj(i -> shards.shardFor("user" + i))
+				.distinct().collect(Collectors.toList());
+		assertThat(used).containsExactlyInAnyOrder(0, 1, 2, 3);
+	}
+
+	@Test
+	void usesSingleShardWithoutSharding() {
+		Shards single = new Shards(false, 4);
+
+		assertThat(single.count()).isEqualTo(1);
+		assertThat(single.shardFor("anything")).isZero();
+	}
+
+	@Test
+	void routesToShardOfKeyAndRestoresPreviousRouting() {
+		int shard = shards.shardFor("user1");
+		int other = (shard + 1) % shards.count();
+
+		shards.on(other, () -> {
+			assertThat(shards.onShardOf("user1", Shards::current)).isEqualTo(shard);
+			assertThat(Shards.current()).isEqualTo(other);
+			return null;
+		});
+
+		assertThat(Shards.current()).isNull();
+	}
+
+	@Test
+	void restoresRoutingIfActionFails() {
+		assertThatIllegalStateException().isThrownBy(() -> shards.on(2, () -> {
+			throw new IllegalStateException();
+		}));
+
+		assertThat(Shards.current()).isNull();
+	}
+
+	@Test
+	void rejectsInvalidShard() {
+		assertThatIllegalArgumentException().isThrownBy(() -> shards.on(4, () -> null));
+	}
+
+	@Test
+	void runsActionOnEachShardInOrder() {
+		assertThat(shards.onEach(Shards::current)).containsExactly(0, 1, 2, 3);
+	}
+
+	@Test
+	void mergesSortedLists() {
+		List<List<Integer>> sorted = Arrays.asList(Arrays.asList(1, 5, 9), Arrays.asList(2, 3),
+				Collections.emptyList(), Arrays.asList(4, 6, 7, 8));
+
+		assertThat(Shards.merge(sorted, Comparator.naturalOrder(), 0, 100))
+				.containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9);
+		assertThat(Shards.merge(sorted, Comparator.naturalOrder(), 3, 4))
+				.containsExactly(4, 5, 6, 7);
+		assertThat(Shards.merge(sorted, Comparator.naturalOrder(), 8, 4)).containsExactly(9);
+		assertThat(Shards.merge(sorted, Comparator.naturalOrder(), 9, 4)).isEmpty();
+		assertThat(Shards.merge(sorted, Comparator.naturalOrder(), 0, 0)).isEmpty();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SingleFlight}.
+ */
+class SingleFlightUnitTests {
+	private static final int THREADS = 16;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+	private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallersShareASingleLoad() throws Exception {
+		List<Future<String>> results = executeConcurrently(() -> {
+			loads.incrementAndGet();
+			awaitAllCallers();
+			return "value";
+		});
+
+		for (Future<String> result : results) {
+			assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void failuresPropagateToAllCallersSharingTheLoad() throws Exception {
+		IllegalStateException failure = new IllegalStateException("Load failed");
+		List<Future<String>> results = executeConcurrently(() -> {
+			loads.incrementAndGet();
+			awaitAllCallers();
+			throw failure;
+		});
+
+		for (Future<String> result : results) {
+			assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS)).hasCause(failure);
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void doesNotCacheResultsOfCompletedLoads() {
+		assertThat(singleFlight.execute("key", () -> "first")).isEqualTo("first");
+		assertThat(singleFlight.execute("key", () -> "second")).isEqualTo("second");
+	}
+
+	@Test
+	void runsLoadsForDifferentKeysIndependently() {
+		String result = singleFlight.execute("outer",
+				() -> singleFlight.execute("inner", () -> "inner"));
+
+		assertThat(result).isEqualTo("inner");
+	}
+
+	private List<Future<String>> executeConcurrently(Supplier<String> loader) {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>(THREADS);
+		for (int i = 0; i < THREADS; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				return singleFlight.execute("key", loader);
+			}));
+		}
+		start.countDown();
+		return results;
+	}
+
+	/**
+	 * Blocks the load until all other callers have joined it.
+	 */
+	private void awaitAllCallers() {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (singleFlight.waiters("key") < THREADS - 1) {
+			assertThat(System.nanoTime()).as("all callers joined in time").isLessThan(deadline);
+			Thread.onSpinWait();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import example.outbox.Outbox;
+import example.sharding.Shards;
+
+/**
+ * Unit tests for {@link UserManagement}. The coalescing itself is covered by
+ * {@link SingleFlightUnitTests}.
+ */
+class UserManagementUnitTests {
+	private final UserRepository repository = mock(UserRepository.class);
+	private final UserManagement userManagement = new UserManagement(repository,
+			mock(PasswordEncoder.class), mock(Outbox.class), mock(UsernameIndex.class),
+			new Shards(false, 1));
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void lookupsByUsernameJoinTheQueryInFlight() throws Exception {
+		Username username = new Username("concurrent");
+		User user = new User(username, Password.encrypted("hash"));
+		CompletableFuture<Future<Optional<User>>> second = new CompletableFuture<>();
+		when(repository.findByUsername(username)).thenAnswer(invocation -> {
+			second.complete(executor.submit(() -> userManagement.findByUsername(username)));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (userManagement.lookups.waiters(username) < 1) {
+				assertThat(System.nanoTime()).as("second lookup joined in time").isLessThan(deadline);
+				Thread.onSpinWait();
+			}
+			return Optional.of(user);
+		});
+
+		assertThat(userManagement.findByUsername(username)).containsSame(user);
+		assertThat(second.get().get(10, TimeUnit.SECONDS)).containsSame(user);
+		verify(repository, times(1)).findByUsername(username);
+	}
+}
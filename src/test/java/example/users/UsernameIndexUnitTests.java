@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import example.sharding.Shards;
+
+/**
+ * Unit tests for {@link UsernameIndex}.
+ */
+class UsernameIndexUnitTests {
+	private final UserRepository repository = mock(UserRepository.class);
+	private final NoOpTransactionManager transactionManager = new NoOpTransactionManager();
+	private final TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+
+	@Test
+	void isNotAvailableBeforeLoading() {
+		assertThat(index(true).isAvailable()).isFalse();
+	}
+
+	@Test
+	void loadsUsernamesOfAllShards() {
+		when(repository.streamAllUsernames()).thenReturn(usernames("carol", "alice"),
+				usernames("bob"));
+		UsernameIndex index = new UsernameIndex(repository, transactionManager, new Shards(true, 2),
+				true);
+
+		index.load();
+
+		assertThat(index.isAvailable()).isTrue();
+		assertThat(names(index.search("", 10))).containsExactly("alice", "bob", "carol");
+		verify(repository, times(2)).streamAllUsernames();
+	}
+
+	@Test
+	void staysUnavailableIfDisabled() {
+		UsernameIndex index = index(false);
+
+		index.load();
+		index.add(new Username("alice"));
+
+		assertThat(index.isAvailable()).isFalse();
+		assertThat(index.search("a", 10)).isEmpty();
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	void returnsUsernamesStartingWithPrefixInOrderUpToLimit() {
+		when(repository.streamAllUsernames()).thenReturn(
+				usernames("user10", "user2", "user1", "user11", "username", "admin", "usf"));
+		UsernameIndex index = index(true);
+		index.load();
+
+		assertThat(names(index.search("user1", 10))).containsExactly("user1", "user10", "user11");
+		assertThat(names(index.search("user", 2))).containsExactly("user1", "user10");
+		assertThat(names(index.search("users", 10))).isEmpty();
+		assertThat(index.search("user", 0)).isEmpty();
+	}
+
+	@Test
+	void addsUsernameOnceTransactionCommits() {
+		UsernameIndex index = loadedEmptyIndex();
+
+		transactions.executeWithoutResult(status -> {
+			index.add(new Username("alice"));
+			assertThat(index.search("alice", 10)).isEmpty();
+		});
+
+		assertThat(names(index.search("alice", 10))).containsExactly("alice");
+	}
+
+	@Test
+	void doesNotAddUsernameIfTransactionRollsBack() {
+		UsernameIndex index = loadedEmptyIndex();
+
+		transactions.executeWithoutResult(status -> {
+			index.add(new Username("alice"));
+			status.setRollbackOnly();
+		});
+
+		assertThat(index.search("alice", 10)).isEmpty();
+	}
+
+	@Test
+	void appliesChangesImmediatelyOutsideOfTransactions() {
+		UsernameIndex index = loadedEmptyIndex();
+
+		index.add(new Username("alice"));
+		assertThat(names(index.search("alice", 10))).containsExactly("alice");
+
+		index.remove(new Username("alice"));
+		assertThat(index.search("alice", 10)).isEmpty();
+	}
+
+	@Test
+	void removesUsernameOnceTransactionCommits() {
+		when(repository.streamAllUsernames()).thenReturn(usernames("alice"));
+		UsernameIndex index = index(true);
+		index.load();
+
+		transactions.executeWithoutResult(status -> {
+			index.remove(new Username("alice"));
+			assertThat(names(index.search("alice", 10))).containsExactly("alice");
+		});
+
+		assertThat(index.search("alice", 10)).isEmpty();
+	}
+
+	private UsernameIndex index(boolean enabled) {
+		return new UsernameIndex(repository, transactionManager, new Shards(false, 1), enabled);
+	}
+
+	private UsernameIndex loadedEmptyIndex() {
+		when(repository.streamAllUsernames()).thenReturn(Stream.empty());
+		UsernameIndex index = index(true);
+		index.load();
+		return index;
+	}
+
+	private static Stream<Username> usernames(String... usernames) {
+		return Stream.of(usernames).map(Username::new);
+	}
+
+	private static List<String> names(List<Username> usernames) {
+		return usernames.stream().map(Username::toString).collect(Collectors.toList());
+	}
+
+	/**
+	 * A transaction manager without a resource, just driving transaction synchronization.
+	 */
+	@SuppressWarnings("serial")
+	static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {}
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users.web;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import example.users.Password;
+import example.users.UserManagement;
+import example.users.Username;
+
+/**
+ * Integration tests for {@link UserEventController}.
+ */
+@SpringBootTest(properties = "outbox.relay.interval=50")
+@AutoConfigureMockMvc
+class UserEventControllerIntegrationTests {
+
+	@Autowired MockMvc mvc;
+	@Autowired UserManagement userManagement;
+
+	@Test
+	void exposesRelayedRegistrationsAsChangeFeed() throws Exception {
+		userManagement.register(new Username("feed-reader"), Password.raw("secret"));
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!mvc.perform(get("/api/users/events").param("limit", "1000")).andReturn()
+				.getResponse().getContentAsString().contains("\"username\":\"feed-reader\"")) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("Registration not relayed to the event feed in time");
+			}
+			Thread.sleep(50);
+		}
+
+		mvc.perform(get("/api/users/events").param("limit", "1000")) //
+				.andExpect(status().isOk()) //
+				.andExpect(jsonPath("$[?(@.payload.username == 'feed-reader')].type")
+						.value("UserRegistered")) //
+				.andExpect(jsonPath("$[?(@.payload.username == 'feed-reader')].position")
+						.isNotEmpty());
+		mvc.perform(get("/api/users/events").param("after", String.valueOf(Long.MAX_VALUE))) //
+				.andExpect(status().isOk()) //
+				.andExpect(jsonPath("$").isEmpty());
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.users.web;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import example.users.UserManagement;
+import example.users.Username;
+
+/**
+ * Unit tests for {@link UserSearchController}.
+ */
+class UserSearchControllerUnitTests {
+	private final UserManagement userManagement = mock(UserManagement.class);
+	private final MockMvc mvc = MockMvcBuilders
+			.standaloneSetup(new UserSearchController(userManagement)).build();
+
+	@Test
+	void returnsMatchingUsernamesAsStrings() throws Exception {
+		when(userManagement.search("user1", 10))
+				.thenReturn(Arrays.asList(new Username("user1"), new Username("user10")));
+
+		mvc.perform(get("/api/users/search").param("prefix", "user1")) //
+				.andExpect(status().isOk()) //
+				.andExpect(content().json("[\"user1\",\"user10\"]", true));
+	}
+
+	@Test
+	void capsLimit() throws Exception {
+		when(userManagement.search(anyString(), anyInt())).thenReturn(Arrays.asList());
+
+		mvc.perform(get("/api/users/search").param("prefix", "user").param("limit", "5000")) //
+				.andExpect(status().isOk());
+
+		verify(userManagement).search("user", 100);
+	}
+
+	@Test
+	void returnsNoUsernamesForEmptyPrefixOrLimit() throws Exception {
+		mvc.perform(get("/api/users/search")) //
+				.andExpect(status().isOk()) //
+				.andExpect(content().json("[]", true));
+		mvc.perform(get("/api/users/search").param("prefix", " ")) //
+				.andExpect(content().json("[]", true));
+		mvc.perform(get("/api/users/search").param("prefix", "user").param("limit", "0")) //
+				.andExpect(content().json("[]", true));
+
+		verifyNoInteractions(userManagement);
+	}
+}